@@ -0,0 +1,55 @@
+package org.example.crawler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "crawler")
+//class that represent extraction rules of crawled sites from application.properties
+public class CrawlerSitesProperties {
+    private List<Site> sites = new ArrayList<>();
+
+    @Data
+    //rules of one site, all selectors are css queries for jsoup
+    public static class Site {
+        //name of site for logs
+        private String name;
+        //base url (main page of website)
+        private String baseUrl;
+        //element with menu on main page and links to categories in it
+        private String menuSelector;
+        private String menuLinkSelector;
+        //links of categories that can't be parsed
+        private List<String> categoryBlacklist = new ArrayList<>();
+        //element with list of news on category page and links to news in it
+        private String categoryContentSelector;
+        private String articleLinkSelector;
+        //only links with this suffix are news
+        private String articleLinkSuffix;
+        //elements of news page
+        private String articleSelector;
+        private String publicationTimeSelector;
+        private String authorLinkSelector;
+        private String headlineSelector;
+        private String alternativeHeadlineSelector;
+        private String articleTextSelector;
+        private String introSelector;
+        //elements of author page
+        private String authorInfoSelector;
+        private String authorNameSelector;
+        private String authorEmailSelector;
+        //rss feeds and sitemaps of site, used to find new news without download of categories
+        private List<String> feeds = new ArrayList<>();
+        private List<String> sitemaps = new ArrayList<>();
+        //every N-th crawl downloads all categories even if site has feeds
+        private int fullScanEveryRuns = 12;
+        //budget of site: count of categories which pages are read at the same time
+        //and max count of news processed in one crawl
+        //(count of requests at the same time is limited by adaptive limiter of host)
+        private int maxConcurrentCategories = 4;
+        private int maxNewsPerRun = 1000;
+    }
+}
@@ -1,8 +1,13 @@
 package org.example.crawler.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.example.crawler.entities.CrawlCategoryPerformance;
 import org.example.crawler.entities.CrawlLog;
+import org.example.crawler.entities.CrawlPerformance;
 import org.example.crawler.repositories.CrawlLogRepository;
+import org.example.crawler.services.CrawlPerformanceService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,22 +15,49 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/crawl-log")
 @RequiredArgsConstructor
 public class CrawlLogController {
+    //max count of records in one response
+    private static final int MAX_LIMIT = 100;
     private final CrawlLogRepository crawlLogRepository;
+    private final CrawlPerformanceService crawlPerformanceService;
 
     @GetMapping
     public ResponseEntity<List<CrawlLog>> getCrawlLogs(
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<CrawlLog> logs = crawlLogRepository.findTop10ByOrderByCrawlTimeDesc()
-                .stream()
-                .limit(limit)
-                .toList();
+        if (limit <= 0)
+            return ResponseEntity.ok(List.of());
+        List<CrawlLog> logs = crawlLogRepository.findAllByOrderByCrawlTimeDesc(PageRequest.of(0, Math.min(limit, MAX_LIMIT)));
 
         return ResponseEntity.ok(logs);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/performance")
+    public ResponseEntity<Map<String, Object>> getPerformance(
+            @RequestParam(required = false) Boolean fullCrawl,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        //wrong page and size are clamped instead of error of PageRequest
+        Page<CrawlPerformance> runs = crawlPerformanceService.getPerformance(fullCrawl, Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_LIMIT));
+        return ResponseEntity.ok(Map.of(
+                "page", runs.getNumber(),
+                "totalPages", runs.getTotalPages(),
+                "totalCount", runs.getTotalElements(),
+                "results", runs.getContent()
+        ));
+    }
+
+    @GetMapping("/performance/categories")
+    public ResponseEntity<Map<String, Map<Long, CrawlCategoryPerformance>>> compareCategories(
+            @RequestParam List<Long> ids) {
+
+        return ResponseEntity.ok(crawlPerformanceService.compareCategories(ids));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.crawler.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.example.crawler.services.ConcurrencyLimiterRegistry;
+import org.example.crawler.services.CrawlCoordinator;
+import org.example.crawler.services.CrawlRun;
+import org.example.crawler.services.NewsCrawlerService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/v1/crawler")
+@RequiredArgsConstructor
+public class CrawlerController {
+    private final ConcurrencyLimiterRegistry limiterRegistry;
+    private final CrawlCoordinator crawlCoordinator;
+    private final NewsCrawlerService newsCrawlerService;
+
+    @GetMapping("/limits")
+    public ResponseEntity<Map<String, Object>> getLimits() {
+        return ResponseEntity.ok(Map.of("limits", limiterRegistry.getState()));
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> runCrawl(
+            @RequestHeader("X-API-KEY") String apiKey,
+            @RequestParam(required = false) Set<String> categories) {
+
+        if (!"secret-api-key".equals(apiKey)) {
+            return ResponseEntity.status(403).build();
+        }
+        if (categories != null && !categories.isEmpty()) {
+            Set<String> unknown;
+            try {
+                unknown = newsCrawlerService.findUnknownCategories(categories);
+            } catch (IOException e) {
+                return ResponseEntity.status(503).body(Map.of("result", "WRONG: can't read categories of sites"));
+            }
+            if (!unknown.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("result", "WRONG: unknown categories: " + unknown));
+            }
+        }
+        Optional<CrawlRun> run = crawlCoordinator.trigger(categories);
+        if (run.isEmpty()) {
+            return ResponseEntity.status(409).body(Map.of("result", "WRONG: crawl is already running"));
+        }
+        return ResponseEntity.accepted().body(describe(run.get()));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Optional<CrawlRun> run = crawlCoordinator.getCurrentRun();
+        status.put("running", run.isPresent());
+        run.ifPresent(currentRun -> status.put("run", describe(currentRun)));
+        crawlCoordinator.getNextCrawlTime().ifPresent(time -> status.put("nextCrawl", time));
+        return ResponseEntity.ok(status);
+    }
+
+    private static Map<String, Object> describe(CrawlRun run) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", run.getStartedAt());
+        result.put("categories", run.isFull() ? "all" : new TreeSet<>(run.getCategories()));
+        result.put("newNews", run.getCounterNewNews().get());
+        return result;
+    }
+}
@@ -3,11 +3,18 @@ package org.example.crawler.controllers;
 import lombok.RequiredArgsConstructor;
 import org.example.crawler.entities.News;
 import org.example.crawler.repositories.NewsRepository;
+import org.example.crawler.services.NameDictionary;
+import org.example.crawler.services.NewsChangeEvent;
 import org.example.crawler.services.NewsCrawlerService;
+import org.example.crawler.services.NewsFeedService;
 import org.example.crawler.services.NewsService;
+import org.example.crawler.services.TitleAutocompleteIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,16 +28,23 @@ public class NewsController {
     private final NewsService newsService;
     private final NewsCrawlerService newsCrawlerService;
     private final NewsRepository newsRepository;
+    private final NewsFeedService newsFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TitleAutocompleteIndex titleAutocompleteIndex;
 
     @GetMapping
     public ResponseEntity<Map<String, Object>> getNews(
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String author,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(defaultValue = "EXACT") NameDictionary.MatchMode match,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
             @RequestParam(defaultValue = "20") int limit) {
 
-        List<News> news = newsService.getFilteredNews(category, author, dateFrom, dateTo, limit);
+        List<News> news = newsService.getFilteredNews(category, author, categoryId, authorId, match,
+                dateFrom, dateTo, limit);
         return ResponseEntity.ok(Map.of(
                 "count", news.size(),
                 "results", news
@@ -58,6 +72,25 @@ public class NewsController {
         ));
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Map<String, Object>> autocomplete(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<TitleAutocompleteIndex.Suggestion> suggestions = titleAutocompleteIndex.lookup(query, limit);
+        return ResponseEntity.ok(Map.of(
+                "count", suggestions.size(),
+                "results", suggestions
+        ));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNews(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        return newsFeedService.subscribe(lastEventId);
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, String>> addNews(
             @RequestHeader("X-API-KEY") String apiKey,
@@ -74,23 +107,20 @@ public class NewsController {
         if (oldNewsOptional.isPresent()) {
             News oldNews = oldNewsOptional.get();
             news.setId(oldNews.getId());
-            if (!(oldNews.getCategory().getId().equals(news.getCategory().getId())) ||
-                    !(oldNews.getTitle().equals(news.getTitle())) ||
-                    !(oldNews.getContent().equals(news.getContent())) ||
-                    !(oldNews.getAuthor().getId().equals(news.getAuthor().getId())) ||
-                    !(oldNews.getPublicationDate().equals(news.getPublicationDate())))
+            if (NewsCrawlerService.isNewsChanged(oldNews, news))
             {
                 newsRepository.save(news);
+                eventPublisher.publishEvent(NewsChangeEvent.of(NewsChangeEvent.Type.UPDATED, news));
                 return ResponseEntity.ok(Map.of("result", String.format("News updated: %s", news.getUrl())));
             }
             else {
-                oldNews.setCreatedAt(LocalDateTime.now());
-                newsRepository.save(oldNews);
+                newsCrawlerService.touchUpToDateNews(List.of(oldNews.getId()));
                 return ResponseEntity.ok(Map.of("result", String.format("News up to date: %s", news.getUrl())));
             }
         }
         else {
             newsRepository.save(news);
+            eventPublisher.publishEvent(NewsChangeEvent.of(NewsChangeEvent.Type.CREATED, news));
             return ResponseEntity.ok(Map.of("result", "OK"));
         }
     }
@@ -0,0 +1,44 @@
+package org.example.crawler.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@Entity
+@Table(name = "crawl_category_performance")
+//class that represent performance of one category in one crawl
+public class CrawlCategoryPerformance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "performance_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CrawlPerformance performance;
+
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(nullable = false)
+    private Long pagesFetched;
+
+    //read bytes of bodies after decompression, not bytes transferred by network
+    @Column(nullable = false)
+    private Long bodyBytes;
+
+    //sum of fetch and parse time of pages of category
+    @Column(nullable = false)
+    private Long busyMillis;
+
+    @Column(nullable = false)
+    private Long newsProcessed;
+
+    @Column(nullable = false)
+    private Long newsSaved;
+}
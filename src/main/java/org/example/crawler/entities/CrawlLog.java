@@ -24,4 +24,8 @@ public class CrawlLog {
 
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
+
+    //categories of partial crawl, null for full crawl
+    @Column(columnDefinition = "TEXT")
+    private String categories;
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package org.example.crawler.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Entity
+@Table(name = "crawl_performance", indexes = {
+        @Index(name = "idx_crawl_performance_started_at", columnList = "startedAt")
+})
+//class that represent performance record of one crawl
+public class CrawlPerformance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    //log of crawl, null if crawl failed
+    @OneToOne
+    @JoinColumn(name = "crawl_log_id")
+    private CrawlLog crawlLog;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private Long durationMillis;
+
+    @Column(nullable = false)
+    private Boolean fullCrawl;
+
+    @Column(nullable = false)
+    private Boolean successful;
+
+    @Column(nullable = false)
+    private Long pagesFetched;
+
+    //read bytes of bodies after decompression, not bytes transferred by network
+    @Column(nullable = false)
+    private Long bodyBytes;
+
+    //latency until headers of response, in microseconds
+    private Long fetchP50Micros;
+    private Long fetchP95Micros;
+    private Long fetchP99Micros;
+    private Long fetchMaxMicros;
+
+    //latency of reading and parsing of body, in microseconds
+    private Long parseP50Micros;
+    private Long parseP95Micros;
+    private Long parseP99Micros;
+    private Long parseMaxMicros;
+
+    //full histograms in compressed HdrHistogram format, encoded with base64
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String fetchHistogram;
+
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String parseHistogram;
+
+    @Column(nullable = false)
+    private Long newsInserted;
+
+    @Column(nullable = false)
+    private Long newsUpdated;
+
+    @Column(nullable = false)
+    private Long newsTouched;
+
+    //count of write statements to database
+    @Column(nullable = false)
+    private Long dbWrites;
+
+    @OneToMany(mappedBy = "performance", cascade = CascadeType.ALL)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<CrawlCategoryPerformance> categories = new ArrayList<>();
+
+    //throughput of crawl for comparison of runs
+    public Double getPagesPerSecond() {
+        if (durationMillis == null || durationMillis == 0 || pagesFetched == null)
+            return null;
+        return pagesFetched * 1000.0 / durationMillis;
+    }
+}
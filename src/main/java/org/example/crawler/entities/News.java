@@ -10,6 +10,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "news", uniqueConstraints = {
         @UniqueConstraint(columnNames = "url")
+}, indexes = {
+        //indexes are created by schema.sql, here they are for ddl-auto
+        @Index(name = "idx_news_publication_date", columnList = "publicationDate"),
+        @Index(name = "idx_news_category_publication_date", columnList = "category_id, publicationDate"),
+        @Index(name = "idx_news_author_publication_date", columnList = "author_id, publicationDate")
 })
 //class that represent news table
 public class News {
@@ -40,4 +45,8 @@ public class News {
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    //time when crawler last confirmed that news is up to date, null for news saved before this column was added
+    @Column
+    private LocalDateTime lastCheckedAt = LocalDateTime.now();
 }
\ No newline at end of file
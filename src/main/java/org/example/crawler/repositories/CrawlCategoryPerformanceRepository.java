@@ -0,0 +1,12 @@
+package org.example.crawler.repositories;
+
+import org.example.crawler.entities.CrawlCategoryPerformance;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+//class that need to work with crawl category performance table
+public interface CrawlCategoryPerformanceRepository extends JpaRepository<CrawlCategoryPerformance, Long> {
+    List<CrawlCategoryPerformance> findByPerformanceIdInOrderByCategory(Collection<Long> performanceIds);
+}
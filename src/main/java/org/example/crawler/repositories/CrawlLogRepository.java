@@ -1,6 +1,7 @@
 package org.example.crawler.repositories;
 
 import org.example.crawler.entities.CrawlLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -8,7 +9,9 @@ import java.util.Optional;
 
 //class that need to work with crawler log table
 public interface CrawlLogRepository extends JpaRepository<CrawlLog, Long> {
-    List<CrawlLog> findTop10ByOrderByCrawlTimeDesc();
+    List<CrawlLog> findAllByOrderByCrawlTimeDesc(Pageable pageable);
 
     Optional<CrawlLog> findFirstByOrderByCrawlTimeDesc();
+
+    Optional<CrawlLog> findFirstByCategoriesIsNullOrderByCrawlTimeDesc();
 }
\ No newline at end of file
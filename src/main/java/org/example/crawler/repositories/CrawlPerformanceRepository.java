@@ -0,0 +1,13 @@
+package org.example.crawler.repositories;
+
+import org.example.crawler.entities.CrawlPerformance;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+//class that need to work with crawl performance table
+public interface CrawlPerformanceRepository extends JpaRepository<CrawlPerformance, Long> {
+    Page<CrawlPerformance> findAllByOrderByStartedAtDesc(Pageable pageable);
+
+    Page<CrawlPerformance> findByFullCrawlOrderByStartedAtDesc(Boolean fullCrawl, Pageable pageable);
+}
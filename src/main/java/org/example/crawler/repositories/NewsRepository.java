@@ -1,26 +1,28 @@
 package org.example.crawler.repositories;
 
 import org.example.crawler.entities.News;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 //class that need to work with news table
-public interface NewsRepository extends JpaRepository<News, Long> {
-    @Query("SELECT n FROM News n WHERE " +
-            "(:category IS NULL OR LOWER(n.category.name) LIKE :category) AND " +
-            "(:author IS NULL OR LOWER(n.author.name) LIKE :author) AND " +
-            "(CAST(:dateFrom AS timestamp) IS NULL OR n.publicationDate >= :dateFrom) AND " +
-            "(CAST(:dateTo AS timestamp) IS NULL OR n.publicationDate <= :dateTo)")
-    List<News> findFilteredNews(
-            @Param("category") String category,
-            @Param("author") String author,
-            @Param("dateFrom") LocalDateTime dateFrom,
-            @Param("dateTo") LocalDateTime dateTo);
+public interface NewsRepository extends JpaRepository<News, Long>, JpaSpecificationExecutor<News> {
+    //only columns needed for index of titles, without loading of content, category and author
+    interface TitleView {
+        Long getId();
+        String getTitle();
+        LocalDateTime getPublicationDate();
+    }
 
     @Query("SELECT n FROM News n WHERE " +
             "LOWER(n.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -31,4 +33,17 @@ public interface NewsRepository extends JpaRepository<News, Long> {
     boolean existsByUrl(String url);
 
     Optional<News> findByUrl(String url);
+
+    @Query("SELECT n.url FROM News n WHERE n.url IN :urls")
+    Set<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+    //mark set of unchanged news as checked with one statement instead of saving every entity
+    @Transactional
+    @Modifying
+    @Query("UPDATE News n SET n.lastCheckedAt = :checkedAt WHERE n.id IN :ids")
+    int touchLastChecked(@Param("ids") Collection<Long> ids, @Param("checkedAt") LocalDateTime checkedAt);
+
+    @Query("SELECT n.id AS id, n.title AS title, n.publicationDate AS publicationDate " +
+            "FROM News n ORDER BY n.publicationDate DESC, n.id DESC")
+    List<TitleView> findLatestTitles(Pageable pageable);
 }
\ No newline at end of file
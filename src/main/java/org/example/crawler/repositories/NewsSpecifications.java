@@ -0,0 +1,30 @@
+package org.example.crawler.repositories;
+
+import org.example.crawler.entities.News;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+//class with conditions for dynamic queries to news table
+//conditions compare foreign keys and dates only, so every combination can use indexes
+public final class NewsSpecifications {
+    private NewsSpecifications() {
+    }
+
+    public static Specification<News> categoryIn(Collection<Long> categoryIds) {
+        return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
+    }
+
+    public static Specification<News> authorIn(Collection<Long> authorIds) {
+        return (root, query, cb) -> root.get("author").get("id").in(authorIds);
+    }
+
+    public static Specification<News> publishedFrom(LocalDateTime dateFrom) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("publicationDate"), dateFrom);
+    }
+
+    public static Specification<News> publishedTo(LocalDateTime dateTo) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("publicationDate"), dateTo);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.crawler.services;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//class that limits count of requests to one site at the same time
+//limit is changed by AIMD: it slowly grows while site answers fast
+//and quickly falls when site answers slow, times out or throttles
+//limit is only a ceiling, real count of requests is also limited by threads of crawler
+public class AdaptiveConcurrencyLimiter {
+    //result of request for limiter
+    public enum Outcome {
+        //fast successful answer, limit can grow
+        SUCCESS,
+        //timeout or throttling status code, limit must fall
+        DROPPED,
+        //other error that says nothing about load of site
+        IGNORED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMillis;
+    private final double backoffRatio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight = 0;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdMillis, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.backoffRatio = backoffRatio;
+    }
+    //wait until count of requests in flight is less than limit
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit)
+                released.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    //finish request and change limit by its result
+    public void release(Outcome outcome, long latencyMillis) {
+        lock.lock();
+        try {
+            //limit was reached, so requests are limited by this limiter and not by count of threads
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+            if (outcome == Outcome.DROPPED)
+                //multiplicative decrease
+                limit = Math.max(minLimit, limit * backoffRatio);
+            else if (outcome == Outcome.SUCCESS && latencyMillis > latencyThresholdMillis)
+                //site becomes slow, decrease limit by one request
+                limit = Math.max(minLimit, limit - 1);
+            else if (outcome == Outcome.SUCCESS && saturated)
+                //additive increase, about one request per window of limit requests,
+                //limit that isn't used doesn't grow, so decrease always reduces real count of requests
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.crawler.services;
+
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+//class that builds text of article without strings of every element:
+//text of elements is written straight in reusable buffer of thread
+public class ArticleTextExtractor {
+    //start size of buffer of thread
+    @Value("${crawler.extract.buffer-size}")
+    private int bufferSize;
+    //buffer that grew bigger than this is dropped after extraction
+    @Value("${crawler.extract.max-buffer-size}")
+    private int maxBufferSize;
+    private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+
+    //extract text of article: intro, then children of article text
+    //h2 are written in upper case, every li of ul (nested too) with bullet, other elements as paragraphs
+    //returns null if article text has no text at all, empty string if there is no text to save
+    public String extract(Element intro, Element articleText) {
+        if (!hasVisibleText(articleText))
+            return null;
+        StringBuilder sb = buffer();
+        try {
+            if (intro != null) {
+                writeText(sb, intro);
+                if (isBlank(sb, 0))
+                    sb.setLength(0);
+                else
+                    sb.append("\n\n");
+            }
+            for (Element child : articleText.children()) {
+                switch (child.tagName()) {
+                    case "h2" -> {
+                        sb.append("\n");
+                        int start = sb.length();
+                        writeText(sb, child);
+                        //String.toUpperCase, because upper case of some chars is longer (ß is SS)
+                        sb.replace(start, sb.length(), sb.substring(start).toUpperCase());
+                        sb.append("\n\n");
+                    }
+                    case "ul" -> {
+                        //text of item contains text of nested items, and nested items are written again
+                        for (Element li : child.getElementsByTag("li")) {
+                            sb.append("• ");
+                            writeText(sb, li);
+                            sb.append("\n");
+                        }
+                        sb.append("\n");
+                    }
+                    default -> {
+                        writeText(sb, child);
+                        sb.append("\n\n");
+                    }
+                }
+            }
+            return trimmed(sb);
+        } finally {
+            if (sb.capacity() > maxBufferSize)
+                buffers.remove();
+        }
+    }
+    private StringBuilder buffer() {
+        StringBuilder sb = buffers.get();
+        if (sb == null) {
+            sb = new StringBuilder(bufferSize);
+            buffers.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+    //write text of element as Element.text()
+    private static void writeText(StringBuilder sb, Element element) {
+        TextWriter writer = new TextWriter(sb);
+        NodeTraversor.traverse(writer, element);
+        writer.finish();
+    }
+    //check without building of text that Element.text() is not blank
+    private static boolean hasVisibleText(Element element) {
+        boolean[] found = {false};
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof TextNode textNode && isVisible(textNode)) {
+                    found[0] = true;
+                    return FilterResult.STOP;
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, element);
+        return found[0];
+    }
+
+    private static boolean isVisible(TextNode textNode) {
+        String text = textNode.getWholeText();
+        boolean preserved = textNode instanceof CDataNode || TextWriter.preserveWhitespace(textNode.parent());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c))
+                continue;
+            if (preserved || !(TextWriter.isActuallyWhitespace(c) || TextWriter.isInvisible(c)))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean isBlank(StringBuilder sb, int from) {
+        for (int i = from; i < sb.length(); i++)
+            if (!Character.isWhitespace(sb.charAt(i)))
+                return false;
+        return true;
+    }
+    //copy of buffer without leading and trailing whitespace, as String.trim()
+    private static String trimmed(StringBuilder sb) {
+        int start = 0;
+        int end = sb.length();
+        while (start < end && sb.charAt(start) <= ' ')
+            start++;
+        while (end > start && sb.charAt(end - 1) <= ' ')
+            end--;
+        return sb.substring(start, end);
+    }
+
+    //writes text nodes in buffer with the same spaces as Element.text()
+    //text of block is trimmed as String.trim(): leading whitespace isn't written, trailing is removed in finish
+    private static class TextWriter implements NodeVisitor {
+        private final StringBuilder sb;
+        //position of first char of current block
+        private final int blockStart;
+
+        TextWriter(StringBuilder sb) {
+            this.sb = sb;
+            this.blockStart = sb.length();
+        }
+
+        @Override
+        public void head(Node node, int depth) {
+            if (node instanceof TextNode textNode) {
+                if (textNode instanceof CDataNode || preserveWhitespace(textNode.parent()))
+                    appendPreserved(textNode.getWholeText());
+                else
+                    appendNormalized(textNode.getWholeText());
+            } else if (node instanceof Element element && (element.isBlock() || element.normalName().equals("br"))) {
+                space();
+            }
+        }
+        //text or inline element after block element is separated by space
+        @Override
+        public void tail(Node node, int depth) {
+            if (node instanceof Element element && element.isBlock()) {
+                Node next = element.nextSibling();
+                if (next instanceof TextNode || next instanceof Element nextElement && !nextElement.isBlock())
+                    space();
+            }
+        }
+        //remove trailing whitespace of block
+        void finish() {
+            int end = sb.length();
+            while (end > blockStart && sb.charAt(end - 1) <= ' ')
+                end--;
+            sb.setLength(end);
+        }
+
+        private boolean isEmpty() {
+            return sb.length() == blockStart;
+        }
+
+        private boolean lastIsSpace() {
+            return !isEmpty() && sb.charAt(sb.length() - 1) == ' ';
+        }
+
+        private void space() {
+            if (!isEmpty() && !lastIsSpace())
+                sb.append(' ');
+        }
+
+        private void appendPreserved(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c > ' ' || !isEmpty())
+                    sb.append(c);
+            }
+        }
+        //whitespace is collapsed in one space as in StringUtil.appendNormalisedWhitespace
+        private void appendNormalized(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (isActuallyWhitespace(c)) {
+                    if (!isEmpty() && !lastIsSpace())
+                        sb.append(' ');
+                } else if (!isInvisible(c) && (c > ' ' || !isEmpty())) {
+                    sb.append(c);
+                }
+            }
+        }
+
+        static boolean isActuallyWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160;
+        }
+        //zero width space and soft hyphen
+        static boolean isInvisible(char c) {
+            return c == 8203 || c == 173;
+        }
+        //text in pre, textarea and other elements that keep whitespace, checked as jsoup does (element and 5 parents)
+        static boolean preserveWhitespace(Element element) {
+            for (int i = 0; i < 6 && element != null; i++) {
+                if (element.tag().preserveWhitespace())
+                    return true;
+                element = element.parent();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+//class that stores adaptive limiters of requests, one limiter for every host
+public class ConcurrencyLimiterRegistry {
+    //count of requests in flight at start of application
+    @Value("${crawler.limiter.initial-limit}")
+    private int initialLimit;
+    @Value("${crawler.limiter.min-limit}")
+    private int minLimit;
+    //max count of requests in flight to one host, threads of crawler are sized by it
+    @Getter
+    @Value("${crawler.limiter.max-limit}")
+    private int maxLimit;
+    //answers slower than this are signal to decrease limit
+    @Value("${crawler.limiter.latency-threshold-ms}")
+    private long latencyThresholdMillis;
+    //limit is multiplied by this ratio on timeout or throttling
+    @Value("${crawler.limiter.backoff-ratio}")
+    private double backoffRatio;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    //get limiter for host of url
+    public AdaptiveConcurrencyLimiter forUrl(String url) {
+        String host = URI.create(url).getHost();
+        return limiters.computeIfAbsent(host == null ? "" : host, ignored ->
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMillis, backoffRatio));
+    }
+    //current limits and requests in flight of all hosts
+    public Map<String, Map<String, Integer>> getState() {
+        Map<String, Map<String, Integer>> state = new TreeMap<>();
+        limiters.forEach((host, limiter) -> state.put(host, Map.of(
+                "limit", limiter.getLimit(),
+                "inFlight", limiter.getInFlight())));
+        return state;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.crawler.services;
+
+import lombok.RequiredArgsConstructor;
+import org.example.crawler.entities.CrawlLog;
+import org.example.crawler.repositories.CrawlLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+//class that starts crawls: by schedule and by hand
+//only one crawl can run at the same time, time of next crawl is computed after every crawl
+//(database is read only once on start of application)
+public class CrawlCoordinator {
+    private final NewsCrawlerService newsCrawlerService;
+    private final CrawlLogRepository crawlLogRepository;
+    private final TaskScheduler taskScheduler;
+    //the number of minutes between successful crawls
+    @Value("${crawler.interval-minutes}")
+    private int intervalCrawlMinutes;
+    //the number of minutes before retry of failed crawl
+    @Value("${crawler.interval-func}")
+    private int retryMinutes;
+    //crawl that is running right now, null if no crawl is running
+    private final AtomicReference<CrawlRun> currentRun = new AtomicReference<>();
+    //scheduled full crawl
+    private ScheduledFuture<?> nextCrawl;
+    private Instant nextCrawlTime;
+
+    //compute time of first crawl from last full crawl in database
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleFirstCrawl() {
+        Optional<CrawlLog> lastLog = crawlLogRepository.findFirstByCategoriesIsNullOrderByCrawlTimeDesc();
+        Instant next = Instant.now();
+        if (lastLog.isPresent()) {
+            Instant lastCrawl = lastLog.get().getCrawlTime().atZone(ZoneId.systemDefault()).toInstant();
+            Instant expired = lastCrawl.plus(Duration.ofMinutes(intervalCrawlMinutes));
+            if (expired.isAfter(next)) {
+                System.out.println("Last crawl not expired");
+                next = expired;
+            }
+        }
+        schedule(next);
+    }
+    //start crawl if no crawl is running, categories = null or empty for full crawl
+    //returns started run or empty if another crawl is running
+    public Optional<CrawlRun> trigger(Set<String> categories) {
+        CrawlRun run = new CrawlRun(categories);
+        if (!currentRun.compareAndSet(null, run))
+            return Optional.empty();
+        //full crawl by hand replaces scheduled crawl
+        Instant cancelled = run.isFull() ? cancelScheduled() : null;
+        try {
+            taskScheduler.schedule(() -> execute(run), Instant.now());
+        } catch (RuntimeException e) {
+            //run will never be executed, so it must not block next crawls or stop scheduled crawls
+            currentRun.compareAndSet(run, null);
+            if (cancelled != null)
+                restoreScheduled(cancelled);
+            throw e;
+        }
+        return Optional.of(run);
+    }
+
+    public Optional<CrawlRun> getCurrentRun() {
+        return Optional.ofNullable(currentRun.get());
+    }
+
+    public synchronized Optional<LocalDateTime> getNextCrawlTime() {
+        return Optional.ofNullable(nextCrawlTime)
+                .map(time -> LocalDateTime.ofInstant(time, ZoneId.systemDefault()));
+    }
+
+    private void execute(CrawlRun run) {
+        CrawlLog crawlLog = null;
+        try {
+            crawlLog = newsCrawlerService.crawl(run);
+        } finally {
+            currentRun.set(null);
+            //next full crawl after interval, failed crawl is retried sooner
+            if (run.isFull())
+                schedule(Instant.now().plus(Duration.ofMinutes(crawlLog != null ? intervalCrawlMinutes : retryMinutes)));
+        }
+    }
+    //scheduled crawl that finds another crawl running waits for retry interval
+    private void runScheduled() {
+        if (trigger(null).isEmpty())
+            schedule(Instant.now().plus(Duration.ofMinutes(retryMinutes)));
+    }
+
+    private synchronized void schedule(Instant time) {
+        cancelScheduled();
+        nextCrawlTime = time;
+        nextCrawl = taskScheduler.schedule(this::runScheduled, time);
+    }
+
+    //returns time of cancelled crawl, null if no crawl was scheduled
+    private synchronized Instant cancelScheduled() {
+        Instant cancelled = nextCrawlTime;
+        if (nextCrawl != null)
+            nextCrawl.cancel(false);
+        nextCrawl = null;
+        nextCrawlTime = null;
+        return cancelled;
+    }
+    //schedule cancelled crawl again, if no other crawl was scheduled after cancel
+    private synchronized void restoreScheduled(Instant time) {
+        if (nextCrawl == null)
+            schedule(time);
+    }
+}
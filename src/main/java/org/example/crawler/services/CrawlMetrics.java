@@ -0,0 +1,63 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+//class that collects performance statistics of one crawl, it's filled by many threads
+public class CrawlMetrics implements PageStats {
+    //latencies in microseconds, histograms resize automatically
+    private final ConcurrentHistogram fetchLatency = new ConcurrentHistogram(3);
+    private final ConcurrentHistogram parseLatency = new ConcurrentHistogram(3);
+    private final AtomicLong pagesFetched = new AtomicLong(0);
+    //bytes of bodies after decompression (gzip is decoded by connection), not bytes of network
+    private final AtomicLong bodyBytes = new AtomicLong(0);
+    //writes to database
+    private final AtomicLong newsInserted = new AtomicLong(0);
+    private final AtomicLong newsUpdated = new AtomicLong(0);
+    private final AtomicLong newsTouched = new AtomicLong(0);
+    //count of write statements (saves of news, categories, authors and batched updates)
+    private final AtomicLong dbWrites = new AtomicLong(0);
+    //statistics of every category by its name
+    private final Map<String, CategoryMetrics> categories = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordPage(long bytes, long fetchMicros, long parseMicros) {
+        pagesFetched.incrementAndGet();
+        bodyBytes.addAndGet(bytes);
+        fetchLatency.recordValue(Math.max(0, fetchMicros));
+        parseLatency.recordValue(Math.max(0, parseMicros));
+    }
+
+    public CategoryMetrics category(String name) {
+        return categories.computeIfAbsent(name, ignored -> new CategoryMetrics(this));
+    }
+
+    @Getter
+    //statistics of one category, pages are also counted in statistics of crawl
+    public static class CategoryMetrics implements PageStats {
+        private final CrawlMetrics crawl;
+        private final AtomicLong pagesFetched = new AtomicLong(0);
+        private final AtomicLong bodyBytes = new AtomicLong(0);
+        //sum of fetch and parse time of pages of category
+        private final AtomicLong busyMicros = new AtomicLong(0);
+        private final AtomicLong newsProcessed = new AtomicLong(0);
+        private final AtomicLong newsSaved = new AtomicLong(0);
+
+        CategoryMetrics(CrawlMetrics crawl) {
+            this.crawl = crawl;
+        }
+
+        @Override
+        public void recordPage(long bytes, long fetchMicros, long parseMicros) {
+            pagesFetched.incrementAndGet();
+            bodyBytes.addAndGet(bytes);
+            busyMicros.addAndGet(fetchMicros + parseMicros);
+            crawl.recordPage(bytes, fetchMicros, parseMicros);
+        }
+    }
+}
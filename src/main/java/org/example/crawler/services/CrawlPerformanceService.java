@@ -0,0 +1,88 @@
+package org.example.crawler.services;
+
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Histogram;
+import org.example.crawler.entities.CrawlCategoryPerformance;
+import org.example.crawler.entities.CrawlLog;
+import org.example.crawler.entities.CrawlPerformance;
+import org.example.crawler.repositories.CrawlCategoryPerformanceRepository;
+import org.example.crawler.repositories.CrawlPerformanceRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+//class that stores performance records of crawls and reads them for comparison
+public class CrawlPerformanceService {
+    private final CrawlPerformanceRepository crawlPerformanceRepository;
+    private final CrawlCategoryPerformanceRepository crawlCategoryPerformanceRepository;
+
+    //save statistics of finished crawl, crawlLog is null if crawl failed
+    public CrawlPerformance save(CrawlRun run, CrawlLog crawlLog) {
+        CrawlMetrics metrics = run.getMetrics();
+        CrawlPerformance performance = new CrawlPerformance();
+        performance.setCrawlLog(crawlLog);
+        performance.setStartedAt(run.getStartedAt());
+        performance.setDurationMillis(Duration.between(run.getStartedAt(), LocalDateTime.now()).toMillis());
+        performance.setFullCrawl(run.isFull());
+        performance.setSuccessful(crawlLog != null);
+        performance.setPagesFetched(metrics.getPagesFetched().get());
+        performance.setBodyBytes(metrics.getBodyBytes().get());
+        Histogram fetch = metrics.getFetchLatency().copy();
+        performance.setFetchP50Micros(fetch.getValueAtPercentile(50));
+        performance.setFetchP95Micros(fetch.getValueAtPercentile(95));
+        performance.setFetchP99Micros(fetch.getValueAtPercentile(99));
+        performance.setFetchMaxMicros(fetch.getMaxValue());
+        performance.setFetchHistogram(encode(fetch));
+        Histogram parse = metrics.getParseLatency().copy();
+        performance.setParseP50Micros(parse.getValueAtPercentile(50));
+        performance.setParseP95Micros(parse.getValueAtPercentile(95));
+        performance.setParseP99Micros(parse.getValueAtPercentile(99));
+        performance.setParseMaxMicros(parse.getMaxValue());
+        performance.setParseHistogram(encode(parse));
+        performance.setNewsInserted(metrics.getNewsInserted().get());
+        performance.setNewsUpdated(metrics.getNewsUpdated().get());
+        performance.setNewsTouched(metrics.getNewsTouched().get());
+        performance.setDbWrites(metrics.getDbWrites().get());
+        metrics.getCategories().forEach((name, categoryMetrics) -> {
+            CrawlCategoryPerformance category = new CrawlCategoryPerformance();
+            category.setPerformance(performance);
+            category.setCategory(name);
+            category.setPagesFetched(categoryMetrics.getPagesFetched().get());
+            category.setBodyBytes(categoryMetrics.getBodyBytes().get());
+            category.setBusyMillis(TimeUnit.MICROSECONDS.toMillis(categoryMetrics.getBusyMicros().get()));
+            category.setNewsProcessed(categoryMetrics.getNewsProcessed().get());
+            category.setNewsSaved(categoryMetrics.getNewsSaved().get());
+            performance.getCategories().add(category);
+        });
+        return crawlPerformanceRepository.save(performance);
+    }
+    //page of records from newest to oldest, fullCrawl = null for all crawls
+    public Page<CrawlPerformance> getPerformance(Boolean fullCrawl, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if (fullCrawl == null)
+            return crawlPerformanceRepository.findAllByOrderByStartedAtDesc(pageRequest);
+        return crawlPerformanceRepository.findByFullCrawlOrderByStartedAtDesc(fullCrawl, pageRequest);
+    }
+    //statistics of categories of given crawls: category -> id of crawl performance -> statistics
+    public Map<String, Map<Long, CrawlCategoryPerformance>> compareCategories(Collection<Long> performanceIds) {
+        Map<String, Map<Long, CrawlCategoryPerformance>> result = new TreeMap<>();
+        for (CrawlCategoryPerformance category : crawlCategoryPerformanceRepository.findByPerformanceIdInOrderByCategory(performanceIds))
+            result.computeIfAbsent(category.getCategory(), ignored -> new LinkedHashMap<>())
+                    .put(category.getPerformance().getId(), category);
+        return result;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+//class that stores state of one crawl, every crawl has own flags and counters
+public class CrawlRun {
+    //names of categories to crawl, null for full crawl
+    private final Set<String> categories;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    //flags and counter for detailed crawler log
+    private final AtomicInteger counterNewNews = new AtomicInteger(0);
+    private final AtomicBoolean ifErrorCluster = new AtomicBoolean(false);
+    private final AtomicBoolean ifErrorCategory = new AtomicBoolean(false);
+    private final AtomicBoolean ifErrorAuthor = new AtomicBoolean(false);
+    private final AtomicBoolean ifErrorNews = new AtomicBoolean(false);
+    private final AtomicBoolean ifErrorSite = new AtomicBoolean(false);
+    //a set that supports multithreading and stores the currently processed news
+    private final Set<String> processedNews = ConcurrentHashMap.newKeySet();
+    //performance statistics of this crawl
+    private final CrawlMetrics metrics = new CrawlMetrics();
+    //count of news processed in this crawl by every site
+    private final Map<String, AtomicInteger> processedNewsBySite = new ConcurrentHashMap<>();
+
+    public CrawlRun(Set<String> categories) {
+        this.categories = categories == null || categories.isEmpty() ? null : Set.copyOf(categories);
+    }
+
+    public boolean isFull() {
+        return categories == null;
+    }
+    //check if news of site can be processed in this crawl and reserve place for it
+    public boolean tryReserveNews(SiteProfile profile) {
+        return processedNewsBySite.computeIfAbsent(profile.getName(), ignored -> new AtomicInteger(0))
+                .incrementAndGet() <= profile.getMaxNewsPerRun();
+    }
+    //check if category must be crawled in this crawl
+    public boolean includesCategory(String category) {
+        return categories == null || categories.contains(category);
+    }
+}
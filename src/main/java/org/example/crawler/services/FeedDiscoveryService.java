@@ -0,0 +1,103 @@
+package org.example.crawler.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.crawler.repositories.NewsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+//class that finds new and modified news of site in its rss feeds and sitemaps
+//instead of download of every category page
+public class FeedDiscoveryService {
+    //max count of links in one query to database
+    private final static int URL_BATCH_SIZE = 500;
+    private final PageFetcher pageFetcher;
+    private final NewsRepository newsRepository;
+    //max count of downloaded bytes of one feed or sitemap (sitemap protocol allows 50 MB)
+    @Value("${crawler.max-feed-bytes}")
+    private int maxFeedBytes;
+
+    //links of news that are not in database or modified after time "since"
+    //throws exception if no feed and sitemap of site can be read
+    //stats - receiver of statistics of downloaded feeds
+    public List<String> discover(SiteProfile profile, LocalDateTime since, PageStats stats) throws IOException {
+        //link -> time of last modification, link can be in many feeds
+        Map<String, LocalDateTime> found = new LinkedHashMap<>();
+        int failedSources = 0;
+        List<String> sources = new ArrayList<>(profile.getFeeds());
+        sources.addAll(profile.getSitemaps());
+        Deque<String> queue = new ArrayDeque<>(sources);
+        //nested sitemaps are read only once
+        Set<String> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            String source = queue.poll();
+            if (!visited.add(source))
+                continue;
+            List<FeedParser.DiscoveredUrl> urls;
+            try {
+                //feeds are parsed as stream, but all found urls are kept in memory, so size of feed is limited
+                urls = pageFetcher.fetch(source, true, maxFeedBytes, stats, (response, body) -> {
+                    try {
+                        return FeedParser.parse(body);
+                    } catch (XMLStreamException e) {
+                        throw new IOException("Can't parse feed: " + source, e);
+                    }
+                });
+            } catch (IOException e) {
+                log.error("Error during reading feed: {}", source, e);
+                failedSources++;
+                continue;
+            }
+            for (FeedParser.DiscoveredUrl url : urls) {
+                if (url.nestedSitemap()) {
+                    //sitemap that was not modified since last run has no new links
+                    if (since == null || url.modified() == null || url.modified().isAfter(since))
+                        queue.add(url.url());
+                } else {
+                    //links are compared with stored news in form of base url of site
+                    String link = profile.toSiteUrl(url.url());
+                    if (link != null && isNewsLink(profile, link))
+                        found.merge(link, url.modified() == null ? LocalDateTime.MIN : url.modified(),
+                                (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+        }
+        if (failedSources == visited.size())
+            throw new IOException("No feed can be read for site: " + profile.getName());
+        return filterNewOrModified(found, since);
+    }
+    //only links that look like news and are not in blacklisted categories, url is already in form of base url of site
+    private static boolean isNewsLink(SiteProfile profile, String url) {
+        if (!url.endsWith(profile.getArticleLinkSuffix()))
+            return false;
+        String path = URI.create(url).getPath();
+        for (String blacklisted : profile.getCategoryBlacklist())
+            if (blacklisted.endsWith("/") && path.startsWith(blacklisted))
+                return false;
+        return true;
+    }
+
+    private List<String> filterNewOrModified(Map<String, LocalDateTime> found, LocalDateTime since) {
+        List<String> result = new ArrayList<>();
+        List<String> urls = new ArrayList<>(found.keySet());
+        for (int from = 0; from < urls.size(); from += URL_BATCH_SIZE) {
+            List<String> batch = urls.subList(from, Math.min(from + URL_BATCH_SIZE, urls.size()));
+            Set<String> stored = newsRepository.findExistingUrls(batch);
+            for (String url : batch) {
+                LocalDateTime modified = found.get(url);
+                if (!stored.contains(url) || (since != null && modified.isAfter(since)))
+                    result.add(url);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.crawler.services;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+//class that reads links from rss feeds, sitemaps and sitemap indexes
+//xml is read as stream, document is never stored in memory
+public final class FeedParser {
+    //link found in feed or sitemap with time of last modification (null if unknown)
+    //nestedSitemap is true for links of sitemap index, they point to other sitemaps
+    public record DiscoveredUrl(String url, LocalDateTime modified, boolean nestedSitemap) {
+    }
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private FeedParser() {
+    }
+
+    public static List<DiscoveredUrl> parse(InputStream input) throws XMLStreamException {
+        List<DiscoveredUrl> result = new ArrayList<>();
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(input);
+        try {
+            //entry is "item" of rss, "url" of sitemap or "sitemap" of sitemap index
+            String entry = null;
+            String link = null;
+            LocalDateTime modified = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("item") || name.equals("url") || name.equals("sitemap")) {
+                        entry = name;
+                        link = null;
+                        modified = null;
+                    } else if (entry != null) {
+                        switch (name) {
+                            //first link of entry is link of page (next can be links of images)
+                            case "link", "loc" -> {
+                                if (link == null)
+                                    link = reader.getElementText().trim();
+                            }
+                            case "pubDate", "lastmod", "publication_date" -> {
+                                LocalDateTime time = parseTime(reader.getElementText().trim());
+                                if (time != null && (modified == null || time.isAfter(modified)))
+                                    modified = time;
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals(entry)) {
+                    if (link != null && !link.isBlank())
+                        result.add(new DiscoveredUrl(link, modified, entry.equals("sitemap")));
+                    entry = null;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+    //time of rss (RFC 1123) or sitemap (ISO 8601 date or date with time) in zone of server
+    private static LocalDateTime parseTime(String text) {
+        try {
+            return ZonedDateTime.parse(text, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (Exception ignored) {}
+        try {
+            return OffsetDateTime.parse(text)
+                    .atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (Exception ignored) {}
+        try {
+            return LocalDateTime.parse(text);
+        } catch (Exception ignored) {}
+        try {
+            return LocalDate.parse(text).atStartOfDay();
+        } catch (Exception ignored) {}
+        return null;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        //feeds are external data, don't load dtd and external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.crawler.services;
+
+import lombok.RequiredArgsConstructor;
+import org.example.crawler.entities.Author;
+import org.example.crawler.entities.Category;
+import org.example.crawler.repositories.AuthorRepository;
+import org.example.crawler.repositories.CategoryRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+//class that stores names of categories and authors with their ids in memory
+//filters by name are resolved to ids here, so database is queried by foreign keys
+public class NameDictionary {
+    //how name in filter is compared with names in dictionary
+    public enum MatchMode {
+        EXACT,
+        PREFIX,
+        CONTAINS
+    }
+
+    private final CategoryRepository categoryRepository;
+    private final AuthorRepository authorRepository;
+    //min time between reloads of dictionary caused by unknown names
+    private static final long RELOAD_INTERVAL_MILLIS = 60_000;
+    //lower case name -> ids (authors can have same names)
+    private volatile Map<String, Set<Long>> categories = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<Long>> authors = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    private volatile long lastReload = 0;
+
+    public Set<Long> resolveCategories(String name, MatchMode mode) {
+        loadIfNeeded();
+        Set<Long> ids = find(categories, normalize(name), mode);
+        //name can be saved by another instance of application, check database
+        if (ids.isEmpty() && reloadIfOutdated())
+            ids = find(categories, normalize(name), mode);
+        return ids;
+    }
+
+    public Set<Long> resolveAuthors(String name, MatchMode mode) {
+        loadIfNeeded();
+        Set<Long> ids = find(authors, normalize(name), mode);
+        if (ids.isEmpty() && reloadIfOutdated())
+            ids = find(authors, normalize(name), mode);
+        return ids;
+    }
+    //add saved category to dictionary
+    //registration waits for running reload, otherwise it could be added to old maps that are replaced
+    public synchronized void register(Category category) {
+        add(categories, category.getName(), category.getId());
+    }
+    //add saved author to dictionary
+    public synchronized void register(Author author) {
+        add(authors, author.getName(), author.getId());
+    }
+    //reload dictionary from database, readers use old maps until new are ready
+    //(registrations wait, reload is done at most once per RELOAD_INTERVAL_MILLIS)
+    public synchronized void reload() {
+        Map<String, Set<Long>> newCategories = new ConcurrentHashMap<>();
+        Map<String, Set<Long>> newAuthors = new ConcurrentHashMap<>();
+        categoryRepository.findAll().forEach(category -> add(newCategories, category.getName(), category.getId()));
+        authorRepository.findAll().forEach(author -> add(newAuthors, author.getName(), author.getId()));
+        categories = newCategories;
+        authors = newAuthors;
+        lastReload = System.currentTimeMillis();
+        loaded = true;
+    }
+
+    private void loadIfNeeded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded)
+                    reload();
+            }
+        }
+    }
+    //returns true if dictionary was reloaded
+    private boolean reloadIfOutdated() {
+        synchronized (this) {
+            if (System.currentTimeMillis() - lastReload < RELOAD_INTERVAL_MILLIS)
+                return false;
+            reload();
+            return true;
+        }
+    }
+
+    private static Set<Long> find(Map<String, Set<Long>> dictionary, String name, MatchMode mode) {
+        if (mode == MatchMode.EXACT)
+            return Set.copyOf(dictionary.getOrDefault(name, Set.of()));
+        Set<Long> ids = new HashSet<>();
+        dictionary.forEach((key, value) -> {
+            if (mode == MatchMode.PREFIX ? key.startsWith(name) : key.contains(name))
+                ids.addAll(value);
+        });
+        return ids;
+    }
+
+    private static void add(Map<String, Set<Long>> dictionary, String name, Long id) {
+        if (name == null || id == null)
+            return;
+        dictionary.computeIfAbsent(normalize(name), ignored -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
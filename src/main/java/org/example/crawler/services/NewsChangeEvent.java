@@ -0,0 +1,20 @@
+package org.example.crawler.services;
+
+import org.example.crawler.entities.News;
+
+import java.time.LocalDateTime;
+
+//event that published when news is created, updated or deleted
+public record NewsChangeEvent(Type type, Long newsId, String url, String title,
+                              LocalDateTime publicationDate) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static NewsChangeEvent of(Type type, News news) {
+        return new NewsChangeEvent(type, news.getId(), news.getUrl(), news.getTitle(),
+                news.getPublicationDate());
+    }
+}
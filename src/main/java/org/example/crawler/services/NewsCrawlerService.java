@@ -5,12 +5,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.crawler.entities.*;
 import org.example.crawler.repositories.*;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -19,11 +18,13 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
@@ -33,29 +34,32 @@ public class NewsCrawlerService {
     //string for status result of crawling
     public final static String SUCCESS = "Success: ";
     public final static String FAILED = "Failed";
+    //count of links of news processed by one task
+    private final static int NEWS_LINKS_PER_TASK = 20;
     //repositories for work with DataBase
     private final NewsRepository newsRepository;
     private final AuthorRepository authorRepository;
     private final CategoryRepository categoryRepository;
     private final CrawlLogRepository crawlLogRepository;
-    //flags and counter for detailed crawler log
-    private final AtomicInteger counter_new_news = new AtomicInteger(0);
-    private final AtomicBoolean ifErrorCluster = new AtomicBoolean(false);
-    private final AtomicBoolean ifErrorCategory = new AtomicBoolean(false);
-    private final AtomicBoolean ifErrorAuthor = new AtomicBoolean(false);
-    private final AtomicBoolean ifErrorNews = new AtomicBoolean(false);
-    //base url (main page of website)
-    @Value("${crawler.base-url}")
-    private String baseUrl;
+    //compiled extraction rules of crawled sites
+    private final SiteProfileRegistry siteProfileRegistry;
+    //publisher of events about changed news
+    private final ApplicationEventPublisher eventPublisher;
+    //downloader of pages
+    private final PageFetcher pageFetcher;
+    //adaptive limiters of requests, their max limit is count of threads of site
+    private final ConcurrencyLimiterRegistry limiterRegistry;
+    //finder of new news in feeds and sitemaps
+    private final FeedDiscoveryService feedDiscoveryService;
+    //extractor of article text into reusable buffer
+    private final ArticleTextExtractor articleTextExtractor;
+    //in memory names of categories and authors for filters
+    private final NameDictionary nameDictionary;
+    //storage of performance records of crawls
+    private final CrawlPerformanceService crawlPerformanceService;
     //the number of minutes for the news to become expired
     @Value("${crawler.interval-outing-minutes}")
     private int expirationMinutes;
-    //the number of minutes for the periodic start of the crawler
-    @Value("${crawler.interval-minutes}")
-    private int intervalCrawlMinutes;
-    //count max attempt of error request for server
-    @Value("${crawler.max-attempts}")
-    private int maxAttempts;
     //name for unknownAuthor
     @Value("${unknown_author}")
     private String unknownAuthorName;
@@ -65,8 +69,6 @@ public class NewsCrawlerService {
     //name for unknown category
     @Value("${unknown_category}")
     private String unknownCategoryName;
-    //a list that supports multithreading and stores the currently processed news
-    private final ConcurrentLinkedQueue<String> processedNewsRightNow = new ConcurrentLinkedQueue<>();
     //the category that applies if the real news category cannot be parsed
     private Category unknownCategory;
     //the author that is applied if it is not possible to parse the real author of the news
@@ -78,198 +80,271 @@ public class NewsCrawlerService {
         this.unknownAuthor = new Author(unknownAuthorName, unknownEmail);
         this.unknownCategory = new Category(unknownCategoryName);
     }
-    //The @Scheduled annotation from Spring is used to run the method regularly on a schedule.
-    //fixedRateString - Running the method at a fixed interval after the start of the previous call.
-    //TimeUnit - By default, fixedRate and fixedDelay work in milliseconds, but we change them to minutes.
-    @Scheduled(fixedRateString = "${crawler.interval-func}", timeUnit = TimeUnit.MINUTES)
-    public void crawlNews() {
-        //Get last log from Database
-        Optional<CrawlLog> lastLog = crawlLogRepository.findFirstByOrderByCrawlTimeDesc();
-        //Check last log for existing, error or expired to start new crawling
-        if (lastLog.isPresent() && !lastLog.get().getErrorMessage().equals(FAILED) &&
-                Duration.between(lastLog.get().getCrawlTime(), LocalDateTime.now()).toMinutes() <= intervalCrawlMinutes) {
-            System.out.println("Last crawl not expired");
-            return;
-        }
+    //crawl all sites (or only selected categories of run), every site has own budget
+    //returns saved crawl log, or null if all sites failed
+    //this method must not be called for two runs at the same time, it's guarded by CrawlCoordinator
+    public CrawlLog crawl(CrawlRun run) {
         //start crawling
         System.out.println("start crawling....");
-        //set flags and counter for crawl log to default values
-        counter_new_news.set(0);
-        ifErrorCluster.set(false);
-        ifErrorCategory.set(false);
-        ifErrorAuthor.set(false);
-        ifErrorNews.set(false);
-        //clear news marked as processed
-        processedNewsRightNow.clear();
-        //create list to store links on categories
-        List<String> categoriesLinks = new LinkedList<>();
-        try {
-            //get connection to main page
-            Document doc = fetchDocument(baseUrl);
-            //find element with class "b_menu-content" on main page
-            Element menuContent = doc.selectFirst("div.b_menu-content");
-            //if program can't find this element, stop crawling
-            if (menuContent == null) {
-                log.error("No menu content find on base url: {}", baseUrl);
-                //create crawl log about failed
-                CrawlLog crawlLog = new CrawlLog();
-                crawlLog.setNewNewsCount(0);
-                crawlLog.setErrorMessage(FAILED);
-                return;
-            }
-            //get all elements with class "b_menu-item" and get tags with attr "href" from them
-            Elements menuItems = menuContent.select("div.b_menu-item a[href]");
-            for (Element menuItem : menuItems) {
-                //get attr "href"
-                String href = menuItem.attr("href");
-                //filter (bad categories that can't be parsing)
-                if (!href.equals("/subjects/civilization/") &&
-                    !href.equals("/history.shtml") &&
-                    !href.equals("/about/") &&
-                    !href.equals("/quiz/") &&
-                    !href.equals("/infographics/") &&
-                    !href.equals("/photo/") &&
-                    !href.equals("/children/")
-                ) {
-                    //add category in list
-                    categoriesLinks.add(baseUrl + href);
-                }
-            }
-            //list for threads
-            List<Thread> threads = new ArrayList<>();
-            for (String url : categoriesLinks) {
-                //start all threads
-                Thread thread = new Thread(() -> processCategory(url));
-                thread.start();
-                threads.add(thread);
-            }
-            for (Thread thread : threads) {
-                try {
-                    //wait all threads
-                    thread.join();
-                } catch (InterruptedException ignored) {}
-            }
-        } catch (Exception e) {
-            //if error while crawling create failed crawl log
-            log.error("Error during crawling process", e);
-            CrawlLog crawlLog = new CrawlLog();
-            crawlLog.setNewNewsCount(counter_new_news.get());
-            crawlLog.setErrorMessage(FAILED);
-            //clear news marked as processed
-            processedNewsRightNow.clear();
-            return;
+        List<SiteProfile> profiles = siteProfileRegistry.getProfiles();
+        AtomicInteger failedSites = new AtomicInteger(0);
+        List<Thread> siteThreads = new ArrayList<>();
+        for (SiteProfile profile : profiles) {
+            Thread thread = new Thread(() -> {
+                if (!crawlSite(run, profile))
+                    failedSites.incrementAndGet();
+            });
+            thread.start();
+            siteThreads.add(thread);
+        }
+        for (Thread thread : siteThreads) {
+            try {
+                //wait all sites
+                thread.join();
+            } catch (InterruptedException ignored) {}
+        }
+        //if all sites failed, crawling failed
+        if (failedSites.get() == profiles.size()) {
+            System.out.println("crawling failed....");
+            savePerformance(run, null);
+            return null;
         }
         //if success create success crawl log with detailed information
         CrawlLog crawlLog = new CrawlLog();
         StringBuilder error = new StringBuilder(SUCCESS);
-        if (ifErrorCluster.get())
+        if (run.getIfErrorSite().get())
+            error.append("Error site(s);");
+        if (run.getIfErrorCluster().get())
             error.append("Error cluster(s);");
-        if (ifErrorCategory.get())
+        if (run.getIfErrorCategory().get())
             error.append("Error category(ies);");
-        if (ifErrorAuthor.get())
+        if (run.getIfErrorAuthor().get())
             error.append("Error author(s);");
-        if (ifErrorNews.get())
+        if (run.getIfErrorNews().get())
             error.append("Error news;");
         crawlLog.setErrorMessage(error.toString());
-        crawlLog.setNewNewsCount(counter_new_news.get());
+        crawlLog.setNewNewsCount(run.getCounterNewNews().get());
+        if (!run.isFull())
+            crawlLog.setCategories(String.join(",", run.getCategories()));
         crawlLogRepository.save(crawlLog);
-        //clear news marked as processed
-        processedNewsRightNow.clear();
+        run.getMetrics().getDbWrites().incrementAndGet();
+        savePerformance(run, crawlLog);
         //end crawling
         System.out.println("end crawling....");
+        return crawlLog;
+    }
+    //save performance record of crawl, error of statistics must not fail crawl
+    private void savePerformance(CrawlRun run, CrawlLog crawlLog) {
+        try {
+            crawlPerformanceService.save(run, crawlLog);
+        } catch (Exception e) {
+            log.error("Error during saving performance of crawl", e);
+        }
     }
-    //method for connect with pages
-    private Document fetchDocument(String url) throws IOException {
-        //count of attempts
-        int attempts = 0;
-        IOException lastException = null;
-        //trying to connect until we reach the attempt limit
-        while (attempts < maxAttempts) {
+    //crawl one site, returns false if site can't be crawled
+    private boolean crawlSite(CrawlRun run, SiteProfile profile) {
+        printTextInMultiThread("Start process site: " + profile.getName());
+        LocalDateTime started = LocalDateTime.now();
+        //pages of categories are read by pool limited by budget of site, news by pool as big as max limit of requests,
+        //so count of requests in flight is set by limiter of host (its acquire waits), not by count of threads
+        ExecutorService categoryExecutor = null;
+        ExecutorService newsExecutor = null;
+        try {
+            //pools are created inside try, so error of creation fails site instead of its thread
+            categoryExecutor = Executors.newFixedThreadPool(profile.getMaxConcurrentCategories());
+            newsExecutor = Executors.newFixedThreadPool(limiterRegistry.getMaxLimit());
+            //find news in feeds of site, if it's not time for full crawl
+            //(crawl of selected categories always downloads these categories)
+            List<String> discoveredLinks = null;
+            if (run.isFull() && !profile.nextRunIsFullScan()) {
+                try {
+                    discoveredLinks = feedDiscoveryService.discover(profile, profile.getLastDiscovery(), run.getMetrics());
+                } catch (Exception e) {
+                    log.error("Can't read feeds of site, all categories will be crawled: {}", profile.getName(), e);
+                }
+            }
+            if (discoveredLinks != null) {
+                printTextInMultiThread(String.format("Found %d new or modified news in feeds of site: %s",
+                        discoveredLinks.size(), profile.getName()));
+                //news from feeds are split between threads
+                submitNewsLinks(newsExecutor, run, profile, discoveredLinks, true);
+            } else {
+                //get links of all categories and process them
+                List<String> categoriesLinks = findCategories(run, profile);
+                if (categoriesLinks == null) {
+                    run.getIfErrorSite().set(true);
+                    return false;
+                }
+                ExecutorService categoryNewsExecutor = newsExecutor;
+                for (String url : categoriesLinks) {
+                    categoryExecutor.submit(() -> processCategory(run, profile, url, categoryNewsExecutor));
+                }
+            }
             try {
-                //Add User-Agent and delay
-                Document doc = Jsoup.connect(url)
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                        .timeout(10_000)
-                        .get();
-
-                //delay between request (2 seconds)
-                Thread.sleep(2000);
-                return doc;
-
-            } catch (InterruptedException ignored) {
-            } catch (IOException e) {
-                //continue try to connect or break if reach limit
-                lastException = e;
-                attempts++;
-                if (attempts < maxAttempts) {
-                    try {
-                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
-                    } catch (InterruptedException ignored) {
-                    }
+                //wait all tasks: news are submitted by tasks of categories, so categories are waited first
+                categoryExecutor.shutdown();
+                categoryExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                newsExecutor.shutdown();
+                newsExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignored) {}
+        } catch (Exception e) {
+            //if error while crawling mark site as failed
+            log.error("Error during crawling site: {}", profile.getName(), e);
+            run.getIfErrorSite().set(true);
+            return false;
+        } finally {
+            if (categoryExecutor != null)
+                categoryExecutor.shutdownNow();
+            if (newsExecutor != null)
+                newsExecutor.shutdownNow();
+        }
+        //next crawl looks for news modified after start of this crawl
+        if (run.isFull())
+            profile.setLastDiscovery(started);
+        printTextInMultiThread("End process site: " + profile.getName());
+        return true;
+    }
+    //get links to categories from menu of main page, returns null if menu can't be found
+    private List<String> findCategories(CrawlRun run, SiteProfile profile) throws IOException {
+        //get connection to main page
+        Document doc = pageFetcher.fetchDocument(profile.getBaseUrl(), run.getMetrics(), profile.getMenu());
+        List<String> hrefs = readMenu(profile, doc);
+        if (hrefs == null)
+            return null;
+        //create list to store links on categories
+        List<String> categoriesLinks = new LinkedList<>();
+        for (String href : hrefs) {
+            //filter categories not selected for this crawl
+            if (run.includesCategory(categoryName(href))) {
+                //add category in list
+                categoriesLinks.add(profile.getBaseUrl() + href);
+            }
+        }
+        return categoriesLinks;
+    }
+    //get links of categories from menu of main page without blacklisted ones and remember their names in profile,
+    //returns null if menu can't be found
+    private List<String> readMenu(SiteProfile profile, Document doc) {
+        //find element with menu on main page
+        Element menuContent = doc.selectFirst(profile.getMenu());
+        //if program can't find this element, stop crawling of site
+        if (menuContent == null) {
+            log.error("No menu content find on base url: {}", profile.getBaseUrl());
+            return null;
+        }
+        List<String> hrefs = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        //get all links to categories from menu
+        for (Element menuItem : menuContent.select(profile.getMenuLink())) {
+            //get attr "href"
+            String href = menuItem.attr("href");
+            //filter bad categories that can't be parsing
+            if (!profile.getCategoryBlacklist().contains(href)) {
+                hrefs.add(href);
+                names.add(categoryName(href));
+            }
+        }
+        profile.setMenuCategories(Set.copyOf(names));
+        return hrefs;
+    }
+    //names of categories that aren't in menu of any site, it's called by request of user:
+    //names are checked in remembered menu, menu is read again (with one attempt) only if name is not in it
+    //throws exception if menu of some site was never read and can't be read now
+    public Set<String> findUnknownCategories(Set<String> categories) throws IOException {
+        Set<String> unknown = new TreeSet<>(categories);
+        for (SiteProfile profile : siteProfileRegistry.getProfiles()) {
+            Set<String> known = profile.getMenuCategories();
+            if (known == null || !known.containsAll(unknown)) {
+                try {
+                    readMenu(profile, pageFetcher.fetchDocumentOnce(profile.getBaseUrl(), PageStats.NONE, profile.getMenu()));
+                } catch (IOException e) {
+                    log.error("Can't read menu of site: {}", profile.getName(), e);
                 }
+                //menu that can't be read now is checked as it was read last time
+                known = profile.getMenuCategories();
+                if (known == null)
+                    throw new IOException("Can't read menu of site: " + profile.getName());
             }
+            unknown.removeAll(known);
+            if (unknown.isEmpty())
+                break;
+        }
+        return unknown;
+    }
+    //split links of news between tasks of executor
+    private void submitNewsLinks(ExecutorService executor, CrawlRun run, SiteProfile profile, List<String> newsLinks,
+                                 boolean ignoreExpiration) {
+        for (int from = 0; from < newsLinks.size(); from += NEWS_LINKS_PER_TASK) {
+            List<String> links = newsLinks.subList(from, Math.min(from + NEWS_LINKS_PER_TASK, newsLinks.size()));
+            executor.submit(() -> processNewsLinks(run, profile, links, ignoreExpiration));
         }
-        if (lastException != null)
-            throw lastException;
-        throw new IOException();
     }
-    //process category (get from main menu)
-    private void processCategory(String url) {
+    //process category (get from main menu), its news are processed by tasks of newsExecutor
+    private void processCategory(CrawlRun run, SiteProfile profile, String url, ExecutorService newsExecutor) {
         printTextInMultiThread("Start process cluster: " + url);
+        List<String> newsLinks = new LinkedList<>();
         try {
-            //try to connect to page
-            List<String> newsLinks = new LinkedList<>();
-            Document doc = fetchDocument(url);
-            //get element with id "_id_main_content" and break if this element not find
-            Element articleListing = doc.getElementById("_id_main_content");
+            //try to connect to page, page is parsed until list of news
+            Document doc = pageFetcher.fetchDocument(url,
+                    run.getMetrics().category(categoryOfUrl(url)), profile.getCategoryContent());
+            //get element with list of news and break if this element not find
+            Element articleListing = doc.selectFirst(profile.getCategoryContent());
             if (articleListing == null) {
                 log.error("Can't find main content of category: {}", url);
                 return;
             }
-            //get all elements with classes that used for news elements
-            //and get tags with attr href
-            Elements articleLinks = articleListing.select(
-                    ".w_col_wide a[href], " +
-                            ".w_col1 a[href], " +
-                            ".w_col2 a[href], " +
-                            ".w_col3 a[href], " +
-                            ".b_newslist-digest a[href], " +
-                            ".w_col_wide1 a[href], " +
-                            ".w_col_wide2 a[href], " +
-                            ".w_col_wide3 a[href]"
-            );
+            //get all links from elements that used for news elements
+            Elements articleLinks = articleListing.select(profile.getArticleLink());
             //processed all found links
             for (Element link : articleLinks) {
                 //some links have entire link, some - only part
                 //processed both cases
                 String href = link.attr("href");
-                if (href.startsWith("https://") && href.endsWith(".shtml"))
+                if (href.startsWith("https://") && href.endsWith(profile.getArticleLinkSuffix()))
                     newsLinks.add(href);
-                else if (href.endsWith(".shtml"))
-                    newsLinks.add(baseUrl + href);
-            }
-            //if no news in category
-            if (newsLinks.isEmpty()) {
-                log.warn("Can't find news in category: {}", url);
-                return;
+                else if (href.endsWith(profile.getArticleLinkSuffix()))
+                    newsLinks.add(profile.getBaseUrl() + href);
             }
+        } catch (Exception e) {
+            log.error("Error during processing set of news: {}", url, e);
+            return;
+        }
+        //if no news in category
+        if (newsLinks.isEmpty()) {
+            log.warn("Can't find news in category: {}", url);
+            return;
+        }
+        submitNewsLinks(newsExecutor, run, profile, new ArrayList<>(newsLinks), false);
+        printTextInMultiThread(String.format("End process cluster: %s, %d news are queued", url, newsLinks.size()));
+    }
+    //process set of links to news
+    //ignoreExpiration - links are known as new or modified (from feeds), process them even if not expired
+    private void processNewsLinks(CrawlRun run, SiteProfile profile, List<String> newsLinks, boolean ignoreExpiration) {
+        try {
+            //ids of news that are up to date, they are marked as checked with one batched update
+            List<Long> upToDateNews = new ArrayList<>();
             //process all news
             for (String link: newsLinks) {
-                //check if another thread process this news
-                if (processedNewsRightNow.contains(link)) {
+                //check if another thread process this news and mark it as processed
+                if (!run.getProcessedNews().add(link)) {
                     printTextInMultiThread(String.format("News already processed by another Thread: %s", link));
                     continue;
                 }
                 //check if news exist and not expired
                 Optional<News> oldNews = newsRepository.findByUrl(link);
-                if (oldNews.isPresent() && !shouldReplace(oldNews.get())) {
+                if (oldNews.isPresent() && !ignoreExpiration && !shouldReplace(oldNews.get())) {
                     printTextInMultiThread(String.format("News not expired: %s", link));
                     continue;
                 }
-                //marking the news as processed
-                processedNewsRightNow.add(link);
+                //check budget of site
+                if (!run.tryReserveNews(profile)) {
+                    printTextInMultiThread(String.format("Budget of site %s is exhausted", profile.getName()));
+                    break;
+                }
                 //process news
-                News news = processNews(link);
+                CrawlMetrics.CategoryMetrics categoryMetrics = run.getMetrics().category(categoryOfUrl(link));
+                News news = processNews(run, profile, link);
+                categoryMetrics.getNewsProcessed().incrementAndGet();
                 //if bad news processing
                 if (news == null) {
                     printTextInMultiThread(String.format("Error while processed news: %s", link));
@@ -278,36 +353,60 @@ public class NewsCrawlerService {
                 //if success process, then try update or create news
                 if (oldNews.isPresent())
                     try {
-                        triggerUpdateNews(oldNews.get(), news);
+                        if (triggerUpdateNews(run, oldNews.get(), news))
+                            categoryMetrics.getNewsSaved().incrementAndGet();
+                        else
+                            upToDateNews.add(oldNews.get().getId());
                     } catch (Exception exception) {
                         log.error("Error during update news: {}", link, exception);
                     }
                 else {
                     //increase the counter
-                    counter_new_news.addAndGet(1);
+                    run.getCounterNewNews().addAndGet(1);
                     newsRepository.save(news);
+                    run.getMetrics().getNewsInserted().incrementAndGet();
+                    run.getMetrics().getDbWrites().incrementAndGet();
+                    categoryMetrics.getNewsSaved().incrementAndGet();
+                    eventPublisher.publishEvent(NewsChangeEvent.of(NewsChangeEvent.Type.CREATED, news));
                     printTextInMultiThread(String.format("Saved new news: %s", link));
                 }
             }
+            if (!upToDateNews.isEmpty()) {
+                run.getMetrics().getNewsTouched().addAndGet(touchUpToDateNews(upToDateNews));
+                run.getMetrics().getDbWrites().incrementAndGet();
+            }
         } catch (Exception e) {
-            log.error("Error during processing set of news: {}", url, e);
+            log.error("Error during processing set of news: {}", newsLinks, e);
         }
-        printTextInMultiThread("End process cluster: " + url);
     }
-    //process news
+    //process news by url of any crawled site
     public News processNews(String url) {
+        Optional<SiteProfile> profile = siteProfileRegistry.findByUrl(url);
+        if (profile.isEmpty()) {
+            log.error("No site profile for news: {}", url);
+            return null;
+        }
+        //news added by hand is not part of any crawl
+        return processNews(new CrawlRun(null), profile.get(), url);
+    }
+    //process news
+    private News processNews(CrawlRun run, SiteProfile profile, String url) {
         //create news and set url for news
         News news = new News();
         news.setUrl(url);
         try {
-            //connect to page
-            Document doc = fetchDocument(url);
-            //get element with id="_id_article" and break if not exist
-            Element articleListing = doc.getElementById("_id_article");
+            //connect to page, page is parsed until article, time, author, intro and text of article
+            //(elements after them, like related news and footer, are not parsed,
+            //page without author link or intro is parsed to the end)
+            Document doc = pageFetcher.fetchDocument(url, run.getMetrics().category(categoryOfUrl(url)),
+                    profile.getArticle(), profile.getPublicationTime(), profile.getArticleText(),
+                    profile.getAuthorLink(), profile.getIntro());
+            //get element with article and break if not exist
+            Element articleListing = doc.selectFirst(profile.getArticle());
             if (articleListing == null)
                 throw new IOException("No article content found");
             //get time of publication from articleListing element
-            Element timeElement = doc.selectFirst(".time[itemprop=datePublished]");
+            Element timeElement = doc.selectFirst(profile.getPublicationTime());
             if (timeElement == null)
                 throw new IOException("Can't find time element");
             String datetime = timeElement.attr("datetime");
@@ -320,107 +419,87 @@ public class NewsCrawlerService {
                 throw new IOException("Can't parse time");
             news.setPublicationDate(localDate);
             //try to get category from url
-            Category category = extractCategory(url);
+            Category category = extractCategory(run, url);
             //check category for existing and update or create if needed
             Optional<Category> oldCategory = categoryRepository.findByName(category.getName());
             if (oldCategory.isPresent())
-                triggerUpdateCategory(oldCategory.get(), category);
-            else
+                triggerUpdateCategory(run, oldCategory.get(), category);
+            else {
                 categoryRepository.save(category);
+                run.getMetrics().getDbWrites().incrementAndGet();
+                nameDictionary.register(category);
+            }
             news.setCategory(category);
             //try to get author link from articleListing element
-            Element authorLink = doc.selectFirst("span[itemprop=name] > a[itemprop=url]");
+            Element authorLink = doc.selectFirst(profile.getAuthorLink());
             //process author by link
             Author author;
             if (authorLink == null)
                 author = unknownAuthor;
             else
-                author = processAuthor(baseUrl + authorLink.attr("href"));
+                author = processAuthor(run, profile, profile.getBaseUrl() + authorLink.attr("href"));
             Optional<Author> oldAuthor = authorRepository.findByName(author.getName());
             //create or update author if needed
             if (oldAuthor.isPresent())
-                triggerUpdateAuthor(oldAuthor.get(), author);
-            else
+                triggerUpdateAuthor(run, oldAuthor.get(), author);
+            else {
                 authorRepository.save(author);
+                run.getMetrics().getDbWrites().incrementAndGet();
+                nameDictionary.register(author);
+            }
             news.setAuthor(author);
             //try to get header from articleListing element
-            Element header = articleListing.selectFirst(".headline[itemprop=headline]");
-            if ((header == null) || (header.text().isBlank())) {
-                header = articleListing.selectFirst(".headline[itemprop=alternativeHeadline]");
-                if ((header == null) || (header.text().isBlank()))
+            Element header = articleListing.selectFirst(profile.getHeadline());
+            String headerText = header == null ? "" : header.text();
+            if (headerText.isBlank()) {
+                header = articleListing.selectFirst(profile.getAlternativeHeadline());
+                headerText = header == null ? "" : header.text();
+                if (headerText.isBlank())
                     throw new IOException("Can't find headline");
             }
-            news.setTitle(header.text());
+            news.setTitle(headerText);
             //try to construct article text from many elements
-            Element articleText = doc.selectFirst("div.b_article-text");
-            Element intro = doc.selectFirst(".intro");
-            if (articleText == null || articleText.text().isBlank())
+            Element articleText = doc.selectFirst(profile.getArticleText());
+            Element intro = doc.selectFirst(profile.getIntro());
+            if (articleText == null)
+                throw new IOException("Can't find articleText");
+            String articleContent = articleTextExtractor.extract(intro, articleText);
+            if (articleContent == null)
                 throw new IOException("Can't find articleText");
-            StringBuilder sb = new StringBuilder();
-            if ((intro != null) && (!intro.text().isBlank())) {
-                sb.append(intro.text()).append("\n\n");
-            }
-            for (Element child : articleText.children()) {
-                String tag = child.tagName();
-                //custom processed for some class of elements
-                switch (tag) {
-                    case "h2":
-                        try {
-                            sb.append("\n").append(child.text().toUpperCase()).append("\n\n");
-                        } catch (Exception ignored) {}
-                        break;
-
-                    case "ul":
-                        try {
-                            for (Element li : child.select("li")) {
-                                sb.append("• ").append(li.text()).append("\n");
-                            }
-                        } catch (Exception ignored) {}
-                        sb.append("\n");
-                        break;
-
-                    default:
-                        try {
-                            sb.append(child.text()).append("\n\n");
-                        } catch (Exception ignored) {}
-                        break;
-                }
-            }
-            String articleContent = sb.toString().trim();
             if (articleContent.isBlank())
                 throw new RuntimeException("Article content is empty");
             news.setContent(articleContent);
         } catch (Exception e) {
             //if error then set flag about it
             log.error("Error during processing news: {}", url, e);
-            ifErrorNews.set(true);
+            run.getIfErrorNews().set(true);
             return null;
         }
         return news;
     }
     //process author
-    private Author processAuthor(String url) {
+    private Author processAuthor(CrawlRun run, SiteProfile profile, String url) {
         Author author = new Author();
         try {
-            //try to connect to page
-            Document doc = fetchDocument(url);
-            //get element with class "author-info" and return unknownAuthor if these
+            //try to connect to page, page is parsed until author info
+            Document doc = pageFetcher.fetchDocument(url, run.getMetrics(), profile.getAuthorInfo());
+            //get element with author info and return unknownAuthor if these
             //element not exist
-            Element authorDiv = doc.selectFirst(".author-info");
+            Element authorDiv = doc.selectFirst(profile.getAuthorInfo());
             if (authorDiv == null) {
-                ifErrorAuthor.set(true);
+                run.getIfErrorAuthor().set(true);
                 return unknownAuthor;
             }
             //try to get name and return unknown author if name not exist
-            Element nameSpan = authorDiv.selectFirst("span[itemprop=name]");
+            Element nameSpan = authorDiv.selectFirst(profile.getAuthorName());
             if ((nameSpan == null) || (nameSpan.text().isBlank())) {
-                ifErrorAuthor.set(true);
+                run.getIfErrorAuthor().set(true);
                 log.error("Empty name of author: {}", url);
                 return unknownAuthor;
             }
             //try extract email and replace for unknownEmail if not exist
             String authorName = nameSpan.text();
-            Element email = authorDiv.selectFirst("a.author-mail");
+            Element email = authorDiv.selectFirst(profile.getAuthorEmail());
             String emailAddr;
             if ((email == null) || (email.text().isBlank()))
                 emailAddr = unknownEmail;
@@ -431,13 +510,13 @@ public class NewsCrawlerService {
         } catch (Exception e) {
             //if error then return unknownAuthor
             log.error("Error during processing author: {}", url, e);
-            ifErrorAuthor.set(true);
+            run.getIfErrorAuthor().set(true);
             return unknownAuthor;
         }
         return author;
     }
     //extract category from url of news
-    private Category extractCategory(String url) {
+    private Category extractCategory(CrawlRun run, String url) {
         try {
             URI uri = new URI(url);
             String path = uri.getPath();
@@ -447,42 +526,78 @@ public class NewsCrawlerService {
             }
         } catch (Exception ignored) {}
         //if program can't extract then return unknownCategory
-        ifErrorCategory.set(true);
+        run.getIfErrorCategory().set(true);
         return unknownCategory;
     }
+    //name of category from link of category in menu ("/politics/" -> "politics")
+    private static String categoryName(String href) {
+        String[] parts = href.split("/");
+        for (String part : parts)
+            if (!part.isBlank())
+                return part;
+        return href;
+    }
+    //name of category of page by its url, used as key of statistics
+    private String categoryOfUrl(String url) {
+        try {
+            return categoryName(URI.create(url).getPath());
+        } catch (Exception e) {
+            return unknownCategoryName;
+        }
+    }
     //method to check if news must be updated
-    private void triggerUpdateNews(News oldNews, News newNews) {
+    //returns true if news was changed and saved, false if news is up to date
+    //(up to date news are not saved here, caller marks them as checked in batch)
+    private boolean triggerUpdateNews(CrawlRun run, News oldNews, News newNews) {
         newNews.setId(oldNews.getId());
-        if (!(oldNews.getCategory().getId().equals(newNews.getCategory().getId())) ||
-            !(oldNews.getTitle().equals(newNews.getTitle())) ||
-            !(oldNews.getContent().equals(newNews.getContent())) ||
-            !(oldNews.getAuthor().getId().equals(newNews.getAuthor().getId())) ||
-            !(oldNews.getPublicationDate().equals(newNews.getPublicationDate())))
-        {
+        if (isNewsChanged(oldNews, newNews)) {
             newsRepository.save(newNews);
+            run.getMetrics().getNewsUpdated().incrementAndGet();
+            run.getMetrics().getDbWrites().incrementAndGet();
+            eventPublisher.publishEvent(NewsChangeEvent.of(NewsChangeEvent.Type.UPDATED, newNews));
             printTextInMultiThread(String.format("News updated: %s", newNews.getUrl()));
+            return true;
         }
-        else {
-            oldNews.setCreatedAt(LocalDateTime.now());
-            newsRepository.save(oldNews);
-            printTextInMultiThread(String.format("News up to date: %s", newNews.getUrl()));
-        }
+        printTextInMultiThread(String.format("News up to date: %s", newNews.getUrl()));
+        return false;
+    }
+    //method to compare stored news with freshly parsed one
+    public static boolean isNewsChanged(News oldNews, News newNews) {
+        return !(oldNews.getCategory().getId().equals(newNews.getCategory().getId())) ||
+                !(oldNews.getTitle().equals(newNews.getTitle())) ||
+                !(oldNews.getContent().equals(newNews.getContent())) ||
+                !(oldNews.getAuthor().getId().equals(newNews.getAuthor().getId())) ||
+                !(oldNews.getPublicationDate().equals(newNews.getPublicationDate()));
+    }
+    //mark up to date news as checked with one set-based update, returns count of updated news
+    public int touchUpToDateNews(List<Long> ids) {
+        if (ids.isEmpty())
+            return 0;
+        int updated = newsRepository.touchLastChecked(ids, LocalDateTime.now());
+        printTextInMultiThread(String.format("Marked as checked %d news", updated));
+        return updated;
     }
     //method to check if author must be updated
-    private void triggerUpdateAuthor(Author oldAuthor, Author newAuthor) {
+    private void triggerUpdateAuthor(CrawlRun run, Author oldAuthor, Author newAuthor) {
         newAuthor.setId(oldAuthor.getId());
-        if (!oldAuthor.getEmail().equals(newAuthor.getEmail()))
+        if (!oldAuthor.getEmail().equals(newAuthor.getEmail())) {
             authorRepository.save(newAuthor);
+            run.getMetrics().getDbWrites().incrementAndGet();
+        }
     }
     //method to check if category must be updated
-    private void triggerUpdateCategory(Category oldCategory, Category newCategory) {
+    private void triggerUpdateCategory(CrawlRun run, Category oldCategory, Category newCategory) {
         newCategory.setId(oldCategory.getId());
-        if (!oldCategory.getName().equals(newCategory.getName()))
+        if (!oldCategory.getName().equals(newCategory.getName())) {
             categoryRepository.save(newCategory);
+            run.getMetrics().getDbWrites().incrementAndGet();
+        }
     }
     //method to check if news should be processed, or it's not expired
     public boolean shouldReplace(News oldNews) {
-        Duration duration = Duration.between(oldNews.getCreatedAt(), LocalDateTime.now());
+        LocalDateTime lastChecked = oldNews.getLastCheckedAt() != null ?
+                oldNews.getLastCheckedAt() : oldNews.getCreatedAt();
+        Duration duration = Duration.between(lastChecked, LocalDateTime.now());
         return duration.toMinutes() >= expirationMinutes;
     }
     //method to print text in console in multithreading
@@ -0,0 +1,175 @@
+package org.example.crawler.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+//class that pushes changes of news to subscribers with server-sent events
+public class NewsFeedService {
+    //event of feed with sequence number used as id of server-sent event
+    public record FeedEvent(long id, NewsChangeEvent.Type type, Long newsId, String url, String title) {
+    }
+    //event sent instead of missed events, client must reload news with GET /api/v1/news
+    public record ResetEvent(long id, String reason) {
+    }
+    public static final String RESET_EVENT = "RESET";
+    //max count of last events stored for resume by Last-Event-ID
+    @Value("${crawler.feed.buffer-size}")
+    private int bufferSize;
+    //max count of not sent events of one subscriber, slow subscriber is disconnected
+    @Value("${crawler.feed.subscriber-queue-size}")
+    private int subscriberQueueSize;
+    //the number of minutes for connection of subscriber to expire
+    @Value("${crawler.feed.timeout-minutes}")
+    private long timeoutMinutes;
+    //count of threads that send events, slow subscriber holds one thread only while it's sending
+    @Value("${crawler.feed.sender-threads}")
+    private int senderThreads;
+    //max count of events sent to one subscriber before thread is given to other subscribers
+    @Value("${crawler.feed.send-batch-size}")
+    private int sendBatchSize;
+    //ring buffer with last events, guarded by lock of this buffer
+    private final ArrayDeque<FeedEvent> buffer = new ArrayDeque<>();
+    //ids start from start time, so ids of previous run of application are older than buffer
+    private long lastEventId = System.currentTimeMillis() * 1000;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    //threads that send events to subscribers
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        sender = Executors.newFixedThreadPool(senderThreads);
+    }
+
+    public SseEmitter subscribe(Long lastSeenId) {
+        return subscribe(lastSeenId, new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes)));
+    }
+    //add new subscriber and send him events after lastSeenId from buffer,
+    //if some of these events are lost, send reset event instead
+    SseEmitter subscribe(Long lastSeenId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberQueueSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        synchronized (buffer) {
+            if (lastSeenId != null) {
+                String gap = findGap(lastSeenId);
+                if (gap != null) {
+                    //subscriber isn't added yet, so reset is sent before any new event
+                    try {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(lastEventId))
+                                .name(RESET_EVENT)
+                                .data(new ResetEvent(lastEventId, gap)));
+                    } catch (IOException | IllegalStateException e) {
+                        emitter.completeWithError(e);
+                        return emitter;
+                    }
+                } else {
+                    for (FeedEvent event : buffer) {
+                        if (event.id() > lastSeenId)
+                            subscriber.queue().offer(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+    //reason why events after lastSeenId can't be resent, null if all of them are in buffer
+    //must be called with lock of buffer
+    private String findGap(long lastSeenId) {
+        if (lastSeenId > lastEventId)
+            return "Unknown event id " + lastSeenId;
+        long oldestId = buffer.isEmpty() ? lastEventId + 1 : buffer.peekFirst().id();
+        if (lastSeenId < oldestId - 1)
+            return "Events after " + lastSeenId + " are no longer stored";
+        if (lastEventId - lastSeenId > subscriberQueueSize)
+            return "Too many events after " + lastSeenId;
+        return null;
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        sender.shutdownNow();
+    }
+
+    @EventListener
+    public void onNewsChange(NewsChangeEvent change) {
+        synchronized (buffer) {
+            FeedEvent event = new FeedEvent(++lastEventId, change.type(), change.newsId(), change.url(), change.title());
+            if (buffer.size() >= bufferSize)
+                buffer.pollFirst();
+            buffer.addLast(event);
+            for (Subscriber subscriber : subscribers) {
+                //if subscriber can't read events fast enough, disconnect him
+                //emitter is completed by sender thread: complete() waits for send that can hang on slow client,
+                //so it must not be called by publisher (crawler thread) or under lock of buffer
+                if (!subscriber.queue().offer(event)) {
+                    log.warn("Subscriber of news feed is too slow, disconnecting");
+                    subscribers.remove(subscriber);
+                    subscriber.closed().set(true);
+                }
+                schedule(subscriber);
+            }
+        }
+    }
+    //start sending of queued events (or completion of closed subscriber) if subscriber is not served by another thread
+    private void schedule(Subscriber subscriber) {
+        if ((!subscriber.queue().isEmpty() || subscriber.closed().get()) && subscriber.sending().compareAndSet(false, true))
+            sender.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            FeedEvent event;
+            int sent = 0;
+            while (!subscriber.closed().get() && sent++ < sendBatchSize && (event = subscriber.queue().poll()) != null) {
+                subscriber.emitter().send(SseEmitter.event()
+                        .id(String.valueOf(event.id()))
+                        .name(event.type().name())
+                        .data(event));
+            }
+        } catch (IOException | IllegalStateException e) {
+            //connection closed by subscriber
+            subscribers.remove(subscriber);
+            subscriber.closed().set(true);
+            subscriber.queue().clear();
+            return;
+        } finally {
+            subscriber.sending().set(false);
+        }
+        //flag is checked after sending is reset, so subscriber closed during last send is completed here
+        //or by thread scheduled by publisher
+        if (subscriber.closed().get()) {
+            subscriber.queue().clear();
+            subscriber.emitter().complete();
+            return;
+        }
+        //events could be added after last poll, but before flag was reset,
+        //or batch ended before queue was empty
+        if (subscribers.contains(subscriber))
+            schedule(subscriber);
+    }
+
+    //closed - subscriber is disconnected, its emitter must be completed by sender thread
+    private record Subscriber(SseEmitter emitter, BlockingQueue<FeedEvent> queue, AtomicBoolean sending,
+                              AtomicBoolean closed) {
+        Subscriber(SseEmitter emitter, BlockingQueue<FeedEvent> queue) {
+            this(emitter, queue, new AtomicBoolean(false), new AtomicBoolean(false));
+        }
+    }
+}
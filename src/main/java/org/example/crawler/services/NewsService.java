@@ -3,30 +3,66 @@ package org.example.crawler.services;
 import lombok.RequiredArgsConstructor;
 import org.example.crawler.entities.News;
 import org.example.crawler.repositories.NewsRepository;
-import org.springframework.data.domain.PageRequest;
+import org.example.crawler.repositories.NewsSpecifications;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NewsService {
     private final NewsRepository newsRepository;
+    private final NameDictionary nameDictionary;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<News> getFilteredNews(String category, String author,
+                                      Long categoryId, Long authorId,
+                                      NameDictionary.MatchMode match,
                                       LocalDateTime dateFrom, LocalDateTime dateTo,
                                       int limit) {
-        if (category != null)
-            category = "%" + category.toLowerCase() + "%";
-        if (author != null)
-            author = "%" + author.toLowerCase() + "%";
-        return newsRepository.findFilteredNews(category, author, dateFrom, dateTo)
-                .stream()
+        //names are resolved to ids in memory, database is filtered by foreign keys
+        List<Specification<News>> conditions = new ArrayList<>();
+        if (category != null || categoryId != null) {
+            Set<Long> categoryIds = resolveIds(categoryId, category, nameDictionary::resolveCategories, match);
+            if (categoryIds.isEmpty())
+                return List.of();
+            conditions.add(NewsSpecifications.categoryIn(categoryIds));
+        }
+        if (author != null || authorId != null) {
+            Set<Long> authorIds = resolveIds(authorId, author, nameDictionary::resolveAuthors, match);
+            if (authorIds.isEmpty())
+                return List.of();
+            conditions.add(NewsSpecifications.authorIn(authorIds));
+        }
+        if (dateFrom != null)
+            conditions.add(NewsSpecifications.publishedFrom(dateFrom));
+        if (dateTo != null)
+            conditions.add(NewsSpecifications.publishedTo(dateTo));
+        return newsRepository.findBy(Specification.allOf(conditions), query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "publicationDate"))
                 .limit(limit)
-                .collect(Collectors.toList());
+                .all());
+    }
+    //ids from id of filter or from name of filter (only ids that match both are returned)
+    private static Set<Long> resolveIds(Long id, String name,
+                                        BiFunction<String, NameDictionary.MatchMode, Set<Long>> resolver,
+                                        NameDictionary.MatchMode match) {
+        if (name == null)
+            return Set.of(id);
+        Set<Long> ids = resolver.apply(name, match);
+        if (id == null)
+            return ids;
+        return ids.contains(id) ? Set.of(id) : Set.of();
     }
 
     public News getNewsById(Long id) {
@@ -47,8 +83,10 @@ public class NewsService {
     }
 
     public boolean deleteNews(Long id) {
-        if (newsRepository.existsById(id)) {
+        Optional<News> news = newsRepository.findById(id);
+        if (news.isPresent()) {
             newsRepository.deleteById(id);
+            eventPublisher.publishEvent(NewsChangeEvent.of(NewsChangeEvent.Type.DELETED, news.get()));
             return true;
         }
         return false;
@@ -0,0 +1,334 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+//class that downloads pages of sites with retries and adaptive limit of requests
+public class PageFetcher {
+    //status codes that mean that site is overloaded
+    private final static Set<Integer> THROTTLING_STATUSES = Set.of(429, 502, 503, 504);
+    //elements that are removed from document while parsing
+    private final static Set<String> PRUNED_TAGS = Set.of("script", "style", "noscript", "template", "svg");
+    //count of first bytes of page where byte order mark and meta charset are looked for
+    private final static int CHARSET_SNIFF_BYTES = 5 * 1024;
+    private final static Pattern META_TAG = Pattern.compile("<meta\\s[^>]*>", Pattern.CASE_INSENSITIVE);
+    private final static Pattern META_CHARSET = Pattern.compile("charset\\s*=\\s*[\"']?\\s*([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+    private final static String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+    //adaptive limiters of requests to sites
+    private final ConcurrencyLimiterRegistry limiterRegistry;
+    //count max attempt of error request for server
+    @Value("${crawler.max-attempts}")
+    private int maxAttempts;
+    //max count of downloaded bytes of html page, the rest of page is not read
+    @Value("${crawler.max-page-bytes}")
+    private int maxPageBytes;
+    //delay before first retry, it's doubled for every next retry
+    @Value("${crawler.retry-base-delay-ms}")
+    private long retryBaseDelayMillis;
+    //max delay before retry, also max time to wait by header Retry-After
+    @Value("${crawler.retry-max-delay-ms}")
+    private long retryMaxDelayMillis;
+
+    //reader of body of response, it is called while request is counted by limiter
+    //body must be read from given stream to be counted in statistics
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(Connection.Response response, InputStream body) throws IOException;
+    }
+
+    //method for connect with pages
+    //page is parsed as stream and parsing stops when elements for all required selectors are complete
+    //(elements after them are not in document), without selectors all page is parsed
+    public Document fetchDocument(String url, PageStats stats, Evaluator... required) throws IOException {
+        return fetch(url, false, maxPageBytes, stats, (response, body) -> parseUntil(response, body, required));
+    }
+    //the same as fetchDocument, but with one attempt, for requests of users that must not wait for retries
+    public Document fetchDocumentOnce(String url, PageStats stats, Evaluator... required) throws IOException {
+        return fetch(url, false, maxPageBytes, 1, stats, (response, body) -> parseUntil(response, body, required));
+    }
+    //method for download of any content (for example xml of feeds)
+    //maxBodySize - max count of read bytes, 0 for unlimited
+    //stats - receiver of size and latencies of downloaded page
+    public <T> T fetch(String url, boolean anyContentType, int maxBodySize, PageStats stats,
+                       ResponseReader<T> reader) throws IOException {
+        return fetch(url, anyContentType, maxBodySize, maxAttempts, stats, reader);
+    }
+
+    private <T> T fetch(String url, boolean anyContentType, int maxBodySize, int maxAttempts, PageStats stats,
+                        ResponseReader<T> reader) throws IOException {
+        //count of attempts
+        int attempts = 0;
+        IOException lastException = null;
+        //trying to connect until we reach the attempt limit
+        while (attempts < maxAttempts) {
+            try {
+                //there is no fixed delay between requests, load of site is limited by adaptive limiter
+                return fetchLimited(url, anyContentType, maxBodySize, stats, reader);
+            } catch (InterruptedException ignored) {
+            } catch (IOException e) {
+                //continue try to connect or break if reach limit
+                lastException = e;
+                attempts++;
+                if (attempts < maxAttempts) {
+                    long retryAfterMillis = e instanceof RetryAfterException retryAfter ? retryAfter.getRetryAfterMillis() : 0;
+                    try {
+                        Thread.sleep(retryDelayMillis(attempts, retryAfterMillis));
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+        }
+        if (lastException != null)
+            throw lastException;
+        throw new IOException();
+    }
+    //exponential backoff with jitter, so retries of many threads don't hit site at the same time,
+    //but not less than site asked in header Retry-After
+    long retryDelayMillis(int attempt, long retryAfterMillis) {
+        long delay = Math.min(retryMaxDelayMillis, retryBaseDelayMillis << Math.min(attempt - 1, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        return Math.max(delay, Math.min(retryAfterMillis, retryMaxDelayMillis));
+    }
+    //method for one request to page, count of requests to site at the same time
+    //is limited by adaptive limiter that watches latency and errors of site
+    private <T> T fetchLimited(String url, boolean anyContentType, int maxBodySize, PageStats stats,
+                               ResponseReader<T> reader) throws IOException, InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiterRegistry.forUrl(url);
+        limiter.acquire();
+        long start = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+        try {
+            Connection.Response response = Jsoup.connect(url)
+                    .userAgent(USER_AGENT)
+                    .timeout(10_000)
+                    .ignoreContentType(anyContentType)
+                    .maxBodySize(maxBodySize)
+                    .ignoreHttpErrors(true)
+                    .execute();
+            if (response.statusCode() < 200 || response.statusCode() >= 400) {
+                response.bodyStream().close();
+                //site asks to slow down or is overloaded
+                if (THROTTLING_STATUSES.contains(response.statusCode()))
+                    outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+                throw new RetryAfterException(response.statusCode(), url,
+                        parseRetryAfter(response.header("Retry-After")));
+            }
+            long fetched = System.nanoTime();
+            CountingInputStream body = new CountingInputStream(response.bodyStream(), maxBodySize);
+            T result = reader.read(response, body);
+            outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+            stats.recordPage(body.getCount(),
+                    TimeUnit.NANOSECONDS.toMicros(fetched - start),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - fetched));
+            return result;
+        } catch (SocketTimeoutException e) {
+            outcome = AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+            throw e;
+        } finally {
+            limiter.release(outcome, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+    //value of header Retry-After in milliseconds, it's count of seconds or http date, 0 if there is no header
+    static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank())
+            return 0;
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(), date).toMillis());
+        } catch (DateTimeParseException ignored) {
+            return 0;
+        }
+    }
+    //parse body of response until elements for all selectors are found
+    //scripts and styles are removed right after parsing, they are never needed
+    private static Document parseUntil(Connection.Response response, InputStream body, Evaluator[] required)
+            throws IOException {
+        BufferedInputStream input = new BufferedInputStream(body, CHARSET_SNIFF_BYTES);
+        Charset charset = detectCharset(input, response.charset());
+        Reader reader = new BufferedReader(new InputStreamReader(input, charset));
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(reader, response.url().toExternalForm())) {
+            if (required.length == 0)
+                return parser.complete();
+            boolean[] found = new boolean[required.length];
+            int remaining = required.length;
+            Iterator<Element> elements = parser.iterator();
+            while (remaining > 0 && elements.hasNext()) {
+                Element element = elements.next();
+                if (PRUNED_TAGS.contains(element.normalName())) {
+                    element.remove();
+                    continue;
+                }
+                for (int i = 0; i < required.length; i++) {
+                    if (!found[i] && element.is(required[i])) {
+                        found[i] = true;
+                        remaining--;
+                    }
+                }
+            }
+            if (remaining == 0)
+                parser.stop();
+            return parser.document();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    //charset of page in the same order as jsoup detects it: byte order mark (it's skipped in stream),
+    //charset of header Content-Type, meta charset or meta http-equiv in first bytes of page, utf-8
+    static Charset detectCharset(BufferedInputStream input, String headerCharset) throws IOException {
+        input.mark(CHARSET_SNIFF_BYTES);
+        byte[] prefix = input.readNBytes(CHARSET_SNIFF_BYTES);
+        input.reset();
+        if (startsWith(prefix, 0x00, 0x00, 0xFE, 0xFF))
+            return skipBom(input, 4, Charset.forName("UTF-32BE"));
+        if (startsWith(prefix, 0xFF, 0xFE, 0x00, 0x00))
+            return skipBom(input, 4, Charset.forName("UTF-32LE"));
+        if (startsWith(prefix, 0xFE, 0xFF))
+            return skipBom(input, 2, StandardCharsets.UTF_16BE);
+        if (startsWith(prefix, 0xFF, 0xFE))
+            return skipBom(input, 2, StandardCharsets.UTF_16LE);
+        if (startsWith(prefix, 0xEF, 0xBB, 0xBF))
+            return skipBom(input, 3, StandardCharsets.UTF_8);
+        Charset charset = charsetForName(headerCharset);
+        if (charset != null)
+            return charset;
+        //meta tags are ascii, so any ascii compatible charset can be used to find them
+        Matcher meta = META_TAG.matcher(new String(prefix, StandardCharsets.ISO_8859_1));
+        while (meta.find()) {
+            Matcher metaCharset = META_CHARSET.matcher(meta.group());
+            if (metaCharset.find()) {
+                charset = charsetForName(metaCharset.group(1));
+                if (charset != null)
+                    return charset;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++)
+            if ((bytes[i] & 0xFF) != prefix[i])
+                return false;
+        return true;
+    }
+
+    private static Charset skipBom(InputStream input, int length, Charset charset) throws IOException {
+        input.skipNBytes(length);
+        return charset;
+    }
+
+    private static Charset charsetForName(String name) {
+        if (name == null || name.isBlank())
+            return null;
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    //error status of response with time that site asked to wait before next request
+    static class RetryAfterException extends HttpStatusException {
+        @Getter
+        private final long retryAfterMillis;
+
+        RetryAfterException(int statusCode, String url, long retryAfterMillis) {
+            super("HTTP error fetching URL", statusCode, url);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    //stream that counts read bytes and ends after limit of bytes (0 for unlimited), as jsoup truncates body,
+    //jsoup itself doesn't limit bodyStream()
+    private static class CountingInputStream extends FilterInputStream {
+        private final long limit;
+        private long count = 0;
+
+        CountingInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit > 0 ? limit : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (count >= limit)
+                return -1;
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            if (count >= limit)
+                return -1;
+            int read = super.read(buffer, offset, (int) Math.min(length, limit - count));
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, limit - count));
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), limit - count);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.crawler.services;
+
+//receiver of statistics of downloaded pages
+@FunctionalInterface
+public interface PageStats {
+    //statistics are not needed (for example for news added by hand)
+    PageStats NONE = (bytes, fetchMicros, parseMicros) -> {};
+
+    //bytes - size of read body after decompression, fetchMicros - time until headers of response,
+    //parseMicros - time of reading and parsing of body
+    void recordPage(long bytes, long fetchMicros, long parseMicros);
+}
@@ -0,0 +1,109 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.crawler.config.CrawlerSitesProperties;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+//class with compiled extraction rules of one site
+//selectors are parsed once on startup, not on every call of select
+public class SiteProfile {
+    private final String name;
+    private final String baseUrl;
+    private final String host;
+    private final Evaluator menu;
+    private final Evaluator menuLink;
+    private final Set<String> categoryBlacklist;
+    private final Evaluator categoryContent;
+    private final Evaluator articleLink;
+    private final String articleLinkSuffix;
+    private final Evaluator article;
+    private final Evaluator publicationTime;
+    private final Evaluator authorLink;
+    private final Evaluator headline;
+    private final Evaluator alternativeHeadline;
+    private final Evaluator articleText;
+    private final Evaluator intro;
+    private final Evaluator authorInfo;
+    private final Evaluator authorName;
+    private final Evaluator authorEmail;
+    private final List<String> feeds;
+    private final List<String> sitemaps;
+    private final int fullScanEveryRuns;
+    private final int maxConcurrentCategories;
+    private final int maxNewsPerRun;
+    //count of crawls of this site since start of application
+    private final AtomicInteger runs = new AtomicInteger(0);
+    //start time of last successful crawl of this site
+    @Setter
+    private volatile LocalDateTime lastDiscovery;
+    //names of categories in menu of site when it was read last time, null if menu wasn't read yet
+    @Setter
+    private volatile Set<String> menuCategories;
+
+    public SiteProfile(CrawlerSitesProperties.Site site) {
+        this.name = site.getName();
+        this.baseUrl = site.getBaseUrl();
+        this.host = normalizeHost(URI.create(site.getBaseUrl()).getHost());
+        this.menu = QueryParser.parse(site.getMenuSelector());
+        this.menuLink = QueryParser.parse(site.getMenuLinkSelector());
+        this.categoryBlacklist = Set.copyOf(site.getCategoryBlacklist());
+        this.categoryContent = QueryParser.parse(site.getCategoryContentSelector());
+        this.articleLink = QueryParser.parse(site.getArticleLinkSelector());
+        this.articleLinkSuffix = site.getArticleLinkSuffix();
+        this.article = QueryParser.parse(site.getArticleSelector());
+        this.publicationTime = QueryParser.parse(site.getPublicationTimeSelector());
+        this.authorLink = QueryParser.parse(site.getAuthorLinkSelector());
+        this.headline = QueryParser.parse(site.getHeadlineSelector());
+        this.alternativeHeadline = QueryParser.parse(site.getAlternativeHeadlineSelector());
+        this.articleText = QueryParser.parse(site.getArticleTextSelector());
+        this.intro = QueryParser.parse(site.getIntroSelector());
+        this.authorInfo = QueryParser.parse(site.getAuthorInfoSelector());
+        this.authorName = QueryParser.parse(site.getAuthorNameSelector());
+        this.authorEmail = QueryParser.parse(site.getAuthorEmailSelector());
+        this.feeds = List.copyOf(site.getFeeds());
+        this.sitemaps = List.copyOf(site.getSitemaps());
+        //budget values less than 1 can't be used (pool of threads can't be empty), so they are 1
+        this.fullScanEveryRuns = Math.max(1, site.getFullScanEveryRuns());
+        this.maxConcurrentCategories = Math.max(1, site.getMaxConcurrentCategories());
+        this.maxNewsPerRun = Math.max(1, site.getMaxNewsPerRun());
+    }
+    //check if current crawl must download all categories: site has no feeds,
+    //it's first crawl after start or it's time for periodic full crawl
+    public boolean nextRunIsFullScan() {
+        int run = runs.getAndIncrement();
+        return (feeds.isEmpty() && sitemaps.isEmpty()) || lastDiscovery == null || run % fullScanEveryRuns == 0;
+    }
+    //check if url belongs to this site, with or without www
+    public boolean matches(String url) {
+        try {
+            String urlHost = URI.create(url).getHost();
+            return urlHost != null && host.equals(normalizeHost(urlHost));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    //url of this site in form of base url: the same scheme and host, without query and fragment,
+    //so variants of one page (http, without www, with utm parameters) are one news, null if url is not of this site
+    public String toSiteUrl(String url) {
+        if (!matches(url))
+            return null;
+        String path = URI.create(url).getRawPath();
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        return base + (path == null || path.isEmpty() ? "/" : path);
+    }
+    //lowercase host without leading www, so www.gazeta.ru and gazeta.ru are the same site
+    static String normalizeHost(String host) {
+        String normalized = host.toLowerCase(Locale.ROOT);
+        return normalized.startsWith("www.") ? normalized.substring(4) : normalized;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.crawler.services;
+
+import lombok.Getter;
+import org.example.crawler.config.CrawlerSitesProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+//class that stores compiled profiles of all crawled sites
+public class SiteProfileRegistry {
+    @Getter
+    private final List<SiteProfile> profiles;
+
+    public SiteProfileRegistry(CrawlerSitesProperties properties) {
+        if (properties.getSites().isEmpty())
+            throw new IllegalStateException("No sites configured in crawler.sites");
+        this.profiles = properties.getSites().stream()
+                .map(SiteProfile::new)
+                .toList();
+    }
+    //find profile of site by url of any page of this site
+    public Optional<SiteProfile> findByUrl(String url) {
+        return profiles.stream()
+                .filter(profile -> profile.matches(url))
+                .findFirst();
+    }
+}
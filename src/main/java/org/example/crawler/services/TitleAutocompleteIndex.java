@@ -0,0 +1,258 @@
+package org.example.crawler.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.crawler.repositories.NewsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+//class that keeps prefix index of news titles in memory for autocomplete
+public class TitleAutocompleteIndex {
+    public record Suggestion(Long id, String title, LocalDateTime publicationDate) {
+    }
+
+    //newest news first, news without date are the oldest
+    private static final Comparator<Entry> RECENCY = Comparator
+            .comparing((Entry e) -> e.publicationDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(e -> e.id)
+            .reversed();
+
+    private final NewsRepository newsRepository;
+    //max count of news in index, the oldest news are evicted
+    @Value("${crawler.autocomplete.max-articles}")
+    private int maxArticles;
+    //max count of suggestions returned by one lookup
+    @Value("${crawler.autocomplete.max-results}")
+    private int maxResults;
+    //if every prefix matches more terms or news than this, news are scanned from the newest instead of by terms
+    @Value("${crawler.autocomplete.max-terms}")
+    private int maxTerms;
+    @Value("${crawler.autocomplete.max-candidates}")
+    private int maxCandidates;
+    //max count of news checked by scan, rare combination of common prefixes gets only matches among the newest news
+    @Value("${crawler.autocomplete.max-scan}")
+    private int maxScan;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byRecency = new ConcurrentSkipListSet<>(RECENCY);
+    //sorted dictionary of terms, all terms with prefix are one range of keys
+    private final ConcurrentSkipListMap<String, Set<Entry>> terms = new ConcurrentSkipListMap<>();
+    //writes are serialized by this lock, lookups don't take it
+    private final Object writeLock = new Object();
+    //ids deleted while index is loading, so loaded rows don't bring them back
+    private Set<Long> deletedWhileLoading = null;
+
+    //load the newest titles from database, changes published before loading finished win over loaded rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (writeLock) {
+            deletedWhileLoading = new HashSet<>();
+        }
+        long start = System.currentTimeMillis();
+        List<NewsRepository.TitleView> titles = newsRepository.findLatestTitles(PageRequest.of(0, maxArticles));
+        synchronized (writeLock) {
+            for (NewsRepository.TitleView title : titles) {
+                if (!entries.containsKey(title.getId()) && !deletedWhileLoading.contains(title.getId()))
+                    add(title.getId(), title.getTitle(), title.getPublicationDate());
+            }
+            deletedWhileLoading = null;
+        }
+        log.info("Autocomplete index loaded: {} news, {} terms in {} ms",
+                entries.size(), terms.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onNewsChange(NewsChangeEvent change) {
+        if (change.newsId() == null)
+            return;
+        synchronized (writeLock) {
+            remove(change.newsId());
+            if (change.type() == NewsChangeEvent.Type.DELETED) {
+                if (deletedWhileLoading != null)
+                    deletedWhileLoading.add(change.newsId());
+            } else {
+                add(change.newsId(), change.title(), change.publicationDate());
+            }
+        }
+    }
+
+    //newest news which title has words starting with every word of query
+    public List<Suggestion> lookup(String query, int limit) {
+        limit = Math.min(limit, maxResults);
+        String[] prefixes = tokenize(query);
+        if (prefixes.length == 0 || limit <= 0)
+            return List.of();
+        Collection<Entry> candidates = candidatesByTerms(prefixes);
+        List<Entry> found = candidates == null
+                ? scanByRecency(prefixes, limit)
+                : topByRecency(candidates, prefixes, limit);
+        List<Suggestion> result = new ArrayList<>(found.size());
+        for (Entry entry : found)
+            result.add(new Suggestion(entry.id, entry.title, entry.publicationDate));
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //news having terms with the rarest prefix of query, null if every prefix is too common for term lookup
+    //candidates are checked for other prefixes later, so one rare prefix is enough
+    private Collection<Entry> candidatesByTerms(String[] prefixes) {
+        Collection<Set<Entry>> driver = null;
+        int driverTotal = Integer.MAX_VALUE;
+        for (String prefix : prefixes) {
+            Collection<Set<Entry>> matched = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            int total = countPostings(matched);
+            if (total < driverTotal) {
+                driver = matched;
+                driverTotal = total;
+                if (total == 0)
+                    return List.of();
+            }
+        }
+        if (driver == null)
+            return null;
+        Set<Entry> candidates = new HashSet<>(driverTotal * 2);
+        for (Set<Entry> postings : driver)
+            candidates.addAll(postings);
+        return candidates;
+    }
+    //count postings before collecting them, so common prefix is rejected cheaply
+    //Integer.MAX_VALUE if prefix matches too many terms or news
+    private int countPostings(Collection<Set<Entry>> matched) {
+        int visitedTerms = 0;
+        int total = 0;
+        for (Set<Entry> postings : matched) {
+            total += postings.size();
+            if (++visitedTerms > maxTerms || total > maxCandidates)
+                return Integer.MAX_VALUE;
+        }
+        return total;
+    }
+
+    //keep only limit newest matching candidates
+    private static List<Entry> topByRecency(Collection<Entry> candidates, String[] prefixes, int limit) {
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, RECENCY.reversed());
+        for (Entry entry : candidates) {
+            if (!entry.matches(prefixes))
+                continue;
+            top.add(entry);
+            if (top.size() > limit)
+                top.poll();
+        }
+        List<Entry> result = new ArrayList<>(top);
+        result.sort(RECENCY);
+        return result;
+    }
+
+    //common prefixes match many news, so the newest matches are usually found after short scan,
+    //scan stops after maxScan news, so result can be incomplete for rare combination of common prefixes
+    private List<Entry> scanByRecency(String[] prefixes, int limit) {
+        List<Entry> result = new ArrayList<>(limit);
+        int scanned = 0;
+        for (Entry entry : byRecency) {
+            if (++scanned > maxScan)
+                break;
+            if (entry.matches(prefixes)) {
+                result.add(entry);
+                if (result.size() >= limit)
+                    break;
+            }
+        }
+        return result;
+    }
+
+    //must be called with write lock
+    private void add(Long id, String title, LocalDateTime publicationDate) {
+        if (title == null)
+            return;
+        String[] tokens = tokenize(title);
+        if (tokens.length == 0)
+            return;
+        Entry entry = new Entry(id, title, publicationDate, tokens);
+        entries.put(id, entry);
+        byRecency.add(entry);
+        for (String token : tokens)
+            terms.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(entry);
+        while (entries.size() > maxArticles)
+            remove(byRecency.last().id);
+    }
+
+    //must be called with write lock
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null)
+            return;
+        byRecency.remove(entry);
+        for (String token : entry.tokens) {
+            Set<Entry> postings = terms.get(token);
+            if (postings == null)
+                continue;
+            postings.remove(entry);
+            if (postings.isEmpty())
+                terms.remove(token);
+        }
+    }
+
+    //distinct lowercase words of text, ё is replaced with е
+    static String[] tokenize(String text) {
+        if (text == null)
+            return new String[0];
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                token.append(c == 'ё' ? 'е' : c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    //indexed news, compared by identity
+    private static final class Entry {
+        private final Long id;
+        private final String title;
+        private final LocalDateTime publicationDate;
+        private final String[] tokens;
+
+        private Entry(Long id, String title, LocalDateTime publicationDate, String[] tokens) {
+            this.id = id;
+            this.title = title;
+            this.publicationDate = publicationDate;
+            this.tokens = tokens;
+        }
+
+        private boolean matches(String[] prefixes) {
+            for (String prefix : prefixes) {
+                boolean found = false;
+                for (String token : tokens) {
+                    if (token.startsWith(prefix)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found)
+                    return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+-- changes of existing tables, every statement can be run again on already migrated database
+
+-- time when crawler last confirmed that news is up to date, null for old news
+ALTER TABLE IF EXISTS news ADD COLUMN IF NOT EXISTS last_checked_at TIMESTAMP(6);
+
+-- indexes for filters of news by date, category and author (foreign keys are not indexed by postgres)
+CREATE INDEX IF NOT EXISTS idx_news_publication_date ON news (publication_date);
+CREATE INDEX IF NOT EXISTS idx_news_category_publication_date ON news (category_id, publication_date);
+CREATE INDEX IF NOT EXISTS idx_news_author_publication_date ON news (author_id, publication_date);
+
+-- categories of partial crawl, null for full crawl
+ALTER TABLE IF EXISTS crawl_log ADD COLUMN IF NOT EXISTS categories TEXT;
+
+-- performance records of crawls, crawl_log_id is null if crawl failed
+CREATE TABLE IF NOT EXISTS crawl_performance (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    crawl_log_id BIGINT UNIQUE REFERENCES crawl_log (id),
+    started_at TIMESTAMP(6) NOT NULL,
+    duration_millis BIGINT NOT NULL,
+    full_crawl BOOLEAN NOT NULL,
+    successful BOOLEAN NOT NULL,
+    pages_fetched BIGINT NOT NULL,
+    body_bytes BIGINT NOT NULL,
+    -- names of percentile columns have no underscore before digits, as hibernate names them
+    fetchp50micros BIGINT,
+    fetchp95micros BIGINT,
+    fetchp99micros BIGINT,
+    fetch_max_micros BIGINT,
+    parsep50micros BIGINT,
+    parsep95micros BIGINT,
+    parsep99micros BIGINT,
+    parse_max_micros BIGINT,
+    fetch_histogram TEXT,
+    parse_histogram TEXT,
+    news_inserted BIGINT NOT NULL,
+    news_updated BIGINT NOT NULL,
+    news_touched BIGINT NOT NULL,
+    db_writes BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_crawl_performance_started_at ON crawl_performance (started_at);
+
+CREATE TABLE IF NOT EXISTS crawl_category_performance (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    performance_id BIGINT NOT NULL REFERENCES crawl_performance (id),
+    category VARCHAR(100) NOT NULL,
+    pages_fetched BIGINT NOT NULL,
+    body_bytes BIGINT NOT NULL,
+    busy_millis BIGINT NOT NULL,
+    news_processed BIGINT NOT NULL,
+    news_saved BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_crawl_category_performance_performance_id ON crawl_category_performance (performance_id);
@@ -0,0 +1,99 @@
+package org.example.crawler.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final long FAST = 10;
+    private static final long SLOW = 5000;
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, maxLimit, 1000, 0.5);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenItIsNotReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 32);
+        //only two requests at the same time, like site with pool of two threads
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.acquire();
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitGrowsAdditivelyWhenItIsReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 4);
+        //every round sends as many requests as limit allows
+        int rounds = 0;
+        while (limiter.getLimit() < 4 && rounds < 100) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++)
+                limiter.acquire();
+            for (int i = 0; i < limit; i++)
+                limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+            rounds++;
+        }
+        //only the first release of round sees reached limit, so limit grows by about 1/limit per round
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(rounds).isBetween(4, 6);
+
+        for (int i = 0; i < 4; i++)
+            limiter.acquire();
+        for (int i = 0; i < 4; i++)
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void droppedRequestsDecreaseLimitMultiplicativelyToMin() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 32);
+        int[] expected = {4, 2, 1, 1};
+        for (int limit : expected) {
+            limiter.acquire();
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.DROPPED, FAST);
+            assertThat(limiter.getLimit()).isEqualTo(limit);
+        }
+    }
+
+    @Test
+    void slowAnswersDecreaseLimitByOne() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 32);
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, SLOW);
+        assertThat(limiter.getLimit()).isEqualTo(7);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED, SLOW);
+        assertThat(limiter.getLimit()).isEqualTo(7);
+    }
+
+    @Test
+    void acquireWaitsForReleaseWhenLimitIsReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1);
+        limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        waiting.start();
+
+        assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        waiting.join();
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.crawler.services;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+//output must be the same as output of previous code based on text() and select("li")
+class ArticleTextExtractorTests {
+    //copy of result with cyrillic text alone takes about 3 bytes per char
+    //(failed attempt to compress string in latin1 and then utf16 copy), previous code allocated about 24
+    private static final double ALLOCATION_TARGET_PER_CHAR = 5;
+    private static final List<String> SAMPLES = List.of(
+            "<p>First  paragraph\n with <b>bold</b> and <a href='#'>link</a>.</p><p>Second</p>",
+            "<h2>Heading <i>in</i> text</h2><p>Text</p><h2>Straße</h2>",
+            "<ul><li>one<ul><li>nested <b>deep</b></li></ul></li><li> two </li></ul><p>after</p>",
+            "<ul>text outside of items<li>item</li></ul>",
+            "<ul><li></li><li>  </li></ul>",
+            "Only direct text",
+            "Direct text<p>and paragraph</p> tail text",
+            "<div><div>block</div>text after block<span>inline</span></div><div><p>a</p><p>b</p></div>",
+            "<p>line<br>break<br/> and nbsp​ zero­width</p>",
+            "<p> </p><p> </p><p>&nbsp;</p>",
+            "<pre>  pre\n   formatted\t text  </pre><p>next</p>",
+            "<table><tr><td>cell 1</td><td>cell 2</td></tr></table><blockquote>quote<p>inner</p>end</blockquote>",
+            "<p>Привет, <em>мир</em>!</p><h2>заголовок ёлки</h2><ul><li>пункт</li></ul>",
+            "   ",
+            "<p></p><div> <span> </span> </div>"
+    );
+
+    private ArticleTextExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        extractor = new ArticleTextExtractor();
+        ReflectionTestUtils.setField(extractor, "bufferSize", 1024);
+        ReflectionTestUtils.setField(extractor, "maxBufferSize", 1024 * 1024);
+    }
+
+    @Test
+    void nestedItemsAreWrittenInTextOfParentAndAgain() {
+        assertThat(extract(null, "<ul><li>one<ul><li>nested</li></ul></li><li>two</li></ul><p>after</p>"))
+                .isEqualTo("• one nested\n• nested\n• two\n\nafter");
+    }
+
+    @Test
+    void introIsSavedWhenArticleHasOnlyDirectText() {
+        assertThat(extract("Intro <b>text</b>", "Only direct text")).isEqualTo("Intro text");
+    }
+
+    @Test
+    void headingIsInUpperCaseOfString() {
+        assertThat(extract(null, "<h2>Straße</h2><p>text</p>")).isEqualTo("STRASSE\n\ntext");
+    }
+
+    @Test
+    void articleWithoutTextIsNotFound() {
+        assertThat(extract("Intro", "<p> </p><div> </div>")).isNull();
+        //text exists, but nothing of it is saved
+        assertThat(extract(null, "Only direct text")).isEmpty();
+    }
+
+    @Test
+    void outputIsSameAsPreviousCode() {
+        for (String article : SAMPLES) {
+            for (String intro : new String[]{null, "<b>Intro</b> text", "   "}) {
+                assertThat(extract(intro, article))
+                        .as("intro %s, article %s", intro, article)
+                        .isEqualTo(previousExtract(intro, article));
+            }
+        }
+    }
+
+    @Test
+    void allocationPerCharIsBelowTarget() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            html.append("<p>Абзац номер ").append(i).append(" с <b>выделенным</b> текстом и <a href='#'>ссылкой</a> ")
+                    .append("на другую новость, которая тоже интересна читателям.</p>");
+            if (i % 10 == 0)
+                html.append("<h2>Заголовок ").append(i).append("</h2><ul><li>первый</li><li>второй</li></ul>");
+        }
+        Document doc = Jsoup.parse("<div class='intro'>Вступление</div><div id='text'>" + html + "</div>");
+        Element intro = doc.selectFirst(".intro");
+        Element text = doc.selectFirst("#text");
+        //warm up of code and buffer of thread
+        for (int i = 0; i < 200; i++)
+            extractor.extract(intro, text);
+
+        for (int i = 0; i < 200; i++)
+            previousExtract(intro, text);
+
+        int runs = 50;
+        int chars = 0;
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++)
+            chars += extractor.extract(intro, text).length();
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++)
+            previousExtract(intro, text);
+        long previousAllocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat((double) allocated / chars)
+                .as("allocated %d bytes for %d chars", allocated, chars)
+                .isLessThanOrEqualTo(ALLOCATION_TARGET_PER_CHAR);
+        assertThat(allocated).isLessThan(previousAllocated / 4);
+    }
+
+    private String extract(String intro, String article) {
+        Document doc = parse(intro, article);
+        return extractor.extract(doc.selectFirst(".intro"), doc.selectFirst("#text"));
+    }
+
+    private static Document parse(String intro, String article) {
+        return Jsoup.parse((intro == null ? "" : "<div class='intro'>" + intro + "</div>")
+                + "<div id='text'>" + article + "</div>");
+    }
+
+    //code of crawler before ArticleTextExtractor, null for "Can't find articleText"
+    private static String previousExtract(String introHtml, String article) {
+        Document doc = parse(introHtml, article);
+        return previousExtract(doc.selectFirst(".intro"), doc.selectFirst("#text"));
+    }
+
+    private static String previousExtract(Element intro, Element articleText) {
+        if (articleText == null || articleText.text().isBlank())
+            return null;
+        StringBuilder sb = new StringBuilder();
+        if ((intro != null) && (!intro.text().isBlank())) {
+            sb.append(intro.text()).append("\n\n");
+        }
+        for (Element child : articleText.children()) {
+            switch (child.tagName()) {
+                case "h2" -> sb.append("\n").append(child.text().toUpperCase()).append("\n\n");
+                case "ul" -> {
+                    for (Element li : child.select("li"))
+                        sb.append("• ").append(li.text()).append("\n");
+                    sb.append("\n");
+                }
+                default -> sb.append(child.text()).append("\n\n");
+            }
+        }
+        return sb.toString().trim();
+    }
+}
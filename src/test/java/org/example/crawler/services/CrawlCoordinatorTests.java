@@ -0,0 +1,63 @@
+package org.example.crawler.services;
+
+import org.example.crawler.repositories.CrawlLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+//crawls are never executed, scheduler only records scheduled tasks
+class CrawlCoordinatorTests {
+    private TaskScheduler taskScheduler;
+    private CrawlCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler = mock(TaskScheduler.class);
+        doReturn(mock(ScheduledFuture.class)).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        CrawlLogRepository crawlLogRepository = mock(CrawlLogRepository.class);
+        when(crawlLogRepository.findFirstByCategoriesIsNullOrderByCrawlTimeDesc()).thenReturn(Optional.empty());
+        coordinator = new CrawlCoordinator(mock(NewsCrawlerService.class), crawlLogRepository, taskScheduler);
+        ReflectionTestUtils.setField(coordinator, "intervalCrawlMinutes", 60);
+        ReflectionTestUtils.setField(coordinator, "retryMinutes", 5);
+        coordinator.scheduleFirstCrawl();
+    }
+
+    @Test
+    void failedSchedulingOfFullCrawlReleasesRunAndRestoresScheduledCrawl() {
+        Instant scheduled = coordinator.getNextCrawlTime().orElseThrow()
+                .atZone(ZoneId.systemDefault()).toInstant();
+        doThrow(new TaskRejectedException("rejected")).doReturn(mock(ScheduledFuture.class))
+                .when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        assertThatThrownBy(() -> coordinator.trigger(null)).isInstanceOf(TaskRejectedException.class);
+
+        assertThat(coordinator.getCurrentRun()).isEmpty();
+        assertThat(coordinator.getNextCrawlTime()).isPresent();
+        //first crawl is scheduled on start and again after failure
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), eq(scheduled));
+    }
+
+    @Test
+    void failedSchedulingOfPartialCrawlKeepsScheduledCrawl() {
+        doThrow(new TaskRejectedException("rejected"))
+                .when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        assertThatThrownBy(() -> coordinator.trigger(Set.of("politics"))).isInstanceOf(TaskRejectedException.class);
+
+        assertThat(coordinator.getCurrentRun()).isEmpty();
+        assertThat(coordinator.getNextCrawlTime()).isPresent();
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.crawler.services;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.crawler.config.CrawlerSitesProperties;
+import org.example.crawler.repositories.NewsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+//feeds and sitemaps are served from src/test/resources/feeds by local http server
+class FeedDiscoveryServiceTests {
+    private HttpServer server;
+    private String base;
+    private FeedDiscoveryService discoveryService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        base = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/", exchange -> {
+            try (InputStream fixture = getClass().getResourceAsStream("/feeds" + exchange.getRequestURI().getPath())) {
+                if (fixture == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                byte[] body = new String(fixture.readAllBytes(), StandardCharsets.UTF_8)
+                        .replace("{base}", base)
+                        .replace("{host}", "localhost:" + server.getAddress().getPort())
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        ConcurrencyLimiterRegistry limiterRegistry = new ConcurrencyLimiterRegistry();
+        ReflectionTestUtils.setField(limiterRegistry, "initialLimit", 2);
+        ReflectionTestUtils.setField(limiterRegistry, "minLimit", 1);
+        ReflectionTestUtils.setField(limiterRegistry, "maxLimit", 4);
+        ReflectionTestUtils.setField(limiterRegistry, "latencyThresholdMillis", 1000L);
+        ReflectionTestUtils.setField(limiterRegistry, "backoffRatio", 0.5);
+        PageFetcher pageFetcher = new PageFetcher(limiterRegistry);
+        ReflectionTestUtils.setField(pageFetcher, "maxAttempts", 1);
+
+        NewsRepository newsRepository = mock(NewsRepository.class);
+        when(newsRepository.findExistingUrls(anyCollection()))
+                .thenReturn(Set.of(base + "/business/news/2025/01/01/2.shtml"));
+        discoveryService = new FeedDiscoveryService(pageFetcher, newsRepository);
+        ReflectionTestUtils.setField(discoveryService, "maxFeedBytes", 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void firstRunFindsOnlyNewNewsOfSite() throws IOException {
+        CrawlMetrics metrics = new CrawlMetrics();
+        List<String> links = discoveryService.discover(profile("/rss.xml", "/sitemap_index.xml"), null, metrics);
+
+        //links of feeds are in form of base url, so variant of stored news is not new
+        assertThat(links).containsExactly(
+                base + "/politics/news/2025/01/10/1.shtml",
+                base + "/politics/news/2025/01/10/7.shtml",
+                base + "/social/news/2025/01/09/5.shtml",
+                base + "/social/news/2023/12/31/6.shtml");
+        //rss, sitemap index and both nested sitemaps
+        assertThat(metrics.getPagesFetched().get()).isEqualTo(4);
+        assertThat(metrics.getBodyBytes().get()).isPositive();
+    }
+
+    @Test
+    void nextRunFindsNewAndModifiedNewsAndSkipsOldSitemaps() throws IOException {
+        List<String> links = discoveryService.discover(profile("/rss.xml", "/sitemap_index.xml"),
+                LocalDateTime.of(2025, 1, 5, 0, 0), PageStats.NONE);
+
+        assertThat(links).containsExactly(
+                base + "/politics/news/2025/01/10/1.shtml",
+                base + "/business/news/2025/01/01/2.shtml",
+                base + "/politics/news/2025/01/10/7.shtml",
+                base + "/social/news/2025/01/09/5.shtml");
+    }
+
+    @Test
+    void feedLargerThanLimitIsNotRead() {
+        //truncated xml can't be parsed
+        ReflectionTestUtils.setField(discoveryService, "maxFeedBytes", 100);
+        assertThatThrownBy(() -> discoveryService.discover(profile("/rss.xml", "/missing_sitemap.xml"), null,
+                PageStats.NONE))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void failsWhenNoFeedCanBeRead() {
+        assertThatThrownBy(() -> discoveryService.discover(profile("/missing.xml", "/missing_sitemap.xml"), null,
+                PageStats.NONE))
+                .isInstanceOf(IOException.class);
+    }
+
+    private SiteProfile profile(String feed, String sitemap) {
+        CrawlerSitesProperties.Site site = new CrawlerSitesProperties.Site();
+        site.setName("test");
+        site.setBaseUrl(base);
+        site.setMenuSelector("body");
+        site.setMenuLinkSelector("a[href]");
+        site.setCategoryBlacklist(List.of("/quiz/"));
+        site.setCategoryContentSelector("body");
+        site.setArticleLinkSelector("a[href]");
+        site.setArticleLinkSuffix(".shtml");
+        site.setArticleSelector("article");
+        site.setPublicationTimeSelector("time");
+        site.setAuthorLinkSelector("a");
+        site.setHeadlineSelector("h1");
+        site.setAlternativeHeadlineSelector("h2");
+        site.setArticleTextSelector("div");
+        site.setIntroSelector("p");
+        site.setAuthorInfoSelector("div");
+        site.setAuthorNameSelector("span");
+        site.setAuthorEmailSelector("a");
+        site.setFeeds(List.of(base + feed));
+        site.setSitemaps(List.of(base + sitemap));
+        return new SiteProfile(site);
+    }
+}
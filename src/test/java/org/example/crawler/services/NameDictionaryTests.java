@@ -0,0 +1,67 @@
+package org.example.crawler.services;
+
+import org.example.crawler.entities.Author;
+import org.example.crawler.entities.Category;
+import org.example.crawler.repositories.AuthorRepository;
+import org.example.crawler.repositories.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NameDictionaryTests {
+    private CategoryRepository categoryRepository;
+    private NameDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        categoryRepository = mock(CategoryRepository.class);
+        AuthorRepository authorRepository = mock(AuthorRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(category(1L, "Politics")));
+        when(authorRepository.findAll()).thenReturn(List.of(author(2L, "Иван Петров"), author(3L, "иван петров")));
+        dictionary = new NameDictionary(categoryRepository, authorRepository);
+        dictionary.reload();
+    }
+
+    @Test
+    void namesAreResolvedIgnoringCase() {
+        assertThat(dictionary.resolveCategories(" POLITICS ", NameDictionary.MatchMode.EXACT)).containsExactly(1L);
+        assertThat(dictionary.resolveCategories("pol", NameDictionary.MatchMode.PREFIX)).containsExactly(1L);
+        assertThat(dictionary.resolveCategories("pol", NameDictionary.MatchMode.EXACT)).isEmpty();
+        assertThat(dictionary.resolveAuthors("петров", NameDictionary.MatchMode.CONTAINS)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void categoryRegisteredDuringReloadIsNotLost() throws InterruptedException {
+        Thread[] registering = new Thread[1];
+        //category is saved while reload reads database, so it isn't in loaded rows
+        when(categoryRepository.findAll()).thenAnswer(invocation -> {
+            registering[0] = new Thread(() -> dictionary.register(category(4L, "Sport")));
+            registering[0].start();
+            while (registering[0].isAlive() && registering[0].getState() != Thread.State.BLOCKED)
+                Thread.onSpinWait();
+            return List.of(category(1L, "Politics"));
+        });
+
+        dictionary.reload();
+        registering[0].join();
+
+        assertThat(dictionary.resolveCategories("sport", NameDictionary.MatchMode.EXACT)).containsExactly(4L);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category(name);
+        category.setId(id);
+        return category;
+    }
+
+    private static Author author(Long id, String name) {
+        Author author = new Author(name, null);
+        author.setId(id);
+        return author;
+    }
+}
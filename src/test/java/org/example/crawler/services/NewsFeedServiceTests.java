@@ -0,0 +1,196 @@
+package org.example.crawler.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//events are captured by emitter that records sent events instead of writing them to response
+class NewsFeedServiceTests {
+    private NewsFeedService feedService;
+
+    private void createService(int bufferSize, int subscriberQueueSize) {
+        feedService = new NewsFeedService();
+        ReflectionTestUtils.setField(feedService, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(feedService, "subscriberQueueSize", subscriberQueueSize);
+        ReflectionTestUtils.setField(feedService, "timeoutMinutes", 1L);
+        ReflectionTestUtils.setField(feedService, "senderThreads", 2);
+        ReflectionTestUtils.setField(feedService, "sendBatchSize", 2);
+        feedService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(feedService, "shutdown");
+    }
+
+    @Test
+    void resumeReplaysEventsAfterLastSeenId() {
+        createService(10, 5);
+        List<Long> ids = publish(4);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feedService.subscribe(ids.get(1), emitter);
+        await(() -> emitter.events.size() == 2);
+        publish(1);
+        await(() -> emitter.events.size() == 3);
+
+        assertThat(emitter.names).containsOnly("CREATED");
+        assertThat(emitter.feedEventIds()).containsExactly(ids.get(2), ids.get(3), ids.get(3) + 1);
+    }
+
+    @Test
+    void resumeFromIdOlderThanBufferSendsReset() {
+        createService(3, 5);
+        List<Long> ids = publish(6);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feedService.subscribe(ids.get(0), emitter);
+        publish(1);
+        await(() -> emitter.events.size() == 2);
+
+        assertThat(emitter.names).containsExactly(NewsFeedService.RESET_EVENT, "CREATED");
+        NewsFeedService.ResetEvent reset = (NewsFeedService.ResetEvent) emitter.events.get(0);
+        assertThat(reset.id()).isEqualTo(ids.get(5));
+        assertThat(emitter.feedEventIds()).containsExactly(ids.get(5) + 1);
+    }
+
+    @Test
+    void resumeWithMoreMissedEventsThanQueueSendsReset() {
+        createService(10, 2);
+        List<Long> ids = publish(5);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feedService.subscribe(ids.get(0), emitter);
+
+        assertThat(emitter.names).containsExactly(NewsFeedService.RESET_EVENT);
+        assertThat(emitter.feedEventIds()).isEmpty();
+    }
+
+    @Test
+    void resumeFromIdOfPreviousRunSendsReset() {
+        createService(10, 5);
+        List<Long> ids = publish(2);
+
+        //id of unknown event after restart can be newer or older than ids of this run
+        RecordingEmitter newer = new RecordingEmitter();
+        feedService.subscribe(ids.get(1) + 100, newer);
+        RecordingEmitter older = new RecordingEmitter();
+        feedService.subscribe(5L, older);
+
+        assertThat(newer.names).containsExactly(NewsFeedService.RESET_EVENT);
+        assertThat(older.names).containsExactly(NewsFeedService.RESET_EVENT);
+    }
+
+    @Test
+    void resumeFromLastEventSendsNothing() {
+        createService(10, 5);
+        List<Long> ids = publish(3);
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feedService.subscribe(ids.get(2), emitter);
+
+        assertThat(emitter.names).isEmpty();
+    }
+
+    @Test
+    void slowSubscriberIsDisconnected() {
+        createService(10, 2);
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.sendAllowed = new CountDownLatch(1);
+        feedService.subscribe(null, slow);
+
+        //first event is taken from queue and blocks in send, next two fill the queue
+        publish(1);
+        await(() -> slow.sendStarted);
+        publish(2);
+        //publisher isn't blocked by send of slow subscriber, which holds lock of emitter
+        long start = System.currentTimeMillis();
+        publish(1);
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+        assertThat(slow.completed).isFalse();
+
+        //other subscribers still receive events
+        RecordingEmitter fast = new RecordingEmitter();
+        feedService.subscribe(null, fast);
+        publish(2);
+        await(() -> fast.events.size() == 2);
+        assertThat(fast.completed).isFalse();
+
+        //slow subscriber is completed by its sender thread after send returns, without other events
+        slow.sendAllowed.countDown();
+        await(() -> slow.completed);
+        assertThat(slow.events).hasSize(1);
+    }
+
+    //publish count of events and return their ids
+    private List<Long> publish(int count) {
+        long lastEventId = (long) ReflectionTestUtils.getField(feedService, "lastEventId");
+        for (int i = 0; i < count; i++)
+            feedService.onNewsChange(new NewsChangeEvent(NewsChangeEvent.Type.CREATED, (long) i,
+                    "https://www.gazeta.ru/news/" + i + ".shtml", "title " + i, null));
+        return LongStream.rangeClosed(lastEventId + 1, lastEventId + count).boxed().toList();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not reached in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private static final Pattern EVENT_NAME = Pattern.compile("event:(\\w+)");
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<Object> events = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch sendAllowed;
+        private volatile boolean sendStarted;
+        private volatile boolean completed;
+
+        //synchronized as send of ResponseBodyEmitter, so complete() waits for blocked send
+        @Override
+        public synchronized void send(SseEventBuilder builder) {
+            sendStarted = true;
+            if (sendAllowed != null) {
+                try {
+                    sendAllowed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String text) {
+                    Matcher matcher = EVENT_NAME.matcher(text);
+                    if (matcher.find())
+                        names.add(matcher.group(1));
+                } else {
+                    events.add(part.getData());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        private List<Long> feedEventIds() {
+            return events.stream()
+                    .filter(NewsFeedService.FeedEvent.class::isInstance)
+                    .map(event -> ((NewsFeedService.FeedEvent) event).id())
+                    .toList();
+        }
+    }
+}
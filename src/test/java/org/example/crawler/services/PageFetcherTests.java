@@ -0,0 +1,216 @@
+package org.example.crawler.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.QueryParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//pages are served by local http server
+class PageFetcherTests {
+    private HttpServer server;
+    private String base;
+    private PageFetcher pageFetcher;
+    private ConcurrencyLimiterRegistry limiterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        base = "http://localhost:" + server.getAddress().getPort();
+        server.start();
+
+        limiterRegistry = new ConcurrencyLimiterRegistry();
+        ReflectionTestUtils.setField(limiterRegistry, "initialLimit", 4);
+        ReflectionTestUtils.setField(limiterRegistry, "minLimit", 1);
+        ReflectionTestUtils.setField(limiterRegistry, "maxLimit", 8);
+        ReflectionTestUtils.setField(limiterRegistry, "latencyThresholdMillis", 1000L);
+        ReflectionTestUtils.setField(limiterRegistry, "backoffRatio", 0.5);
+        pageFetcher = new PageFetcher(limiterRegistry);
+        ReflectionTestUtils.setField(pageFetcher, "maxAttempts", 2);
+        ReflectionTestUtils.setField(pageFetcher, "maxPageBytes", 1024 * 1024);
+        ReflectionTestUtils.setField(pageFetcher, "retryBaseDelayMillis", 10L);
+        ReflectionTestUtils.setField(pageFetcher, "retryMaxDelayMillis", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void throttledRequestIsRetriedAfterRetryAfterAndDecreasesLimit() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/page", exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 503, "text/html", new byte[0]);
+            } else {
+                respond(exchange, 200, "text/html; charset=utf-8",
+                        "<html><body><p>ok</p></body></html>".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        Document document = pageFetcher.fetchDocument(base + "/page", PageStats.NONE);
+
+        assertThat(document.select("p").text()).isEqualTo("ok");
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(1000);
+        assertThat(limiterRegistry.forUrl(base).getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void notFoundFailsAfterAllAttempts() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/missing", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 404, "text/html", new byte[0]);
+        });
+
+        assertThatThrownBy(() -> pageFetcher.fetchDocument(base + "/missing", PageStats.NONE))
+                .isInstanceOf(HttpStatusException.class);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(limiterRegistry.forUrl(base).getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void fetchDocumentOnceDoesNotRetry() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/down", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 503, "text/html", new byte[0]);
+        });
+
+        assertThatThrownBy(() -> pageFetcher.fetchDocumentOnce(base + "/down", PageStats.NONE))
+                .isInstanceOf(HttpStatusException.class);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void retryDelayGrowsExponentiallyUpToMax() {
+        assertThat(pageFetcher.retryDelayMillis(1, 0)).isBetween(5L, 10L);
+        assertThat(pageFetcher.retryDelayMillis(3, 0)).isBetween(20L, 40L);
+        assertThat(pageFetcher.retryDelayMillis(30, 0)).isBetween(2500L, 5000L);
+        assertThat(pageFetcher.retryDelayMillis(1, 3000)).isEqualTo(3000L);
+        assertThat(pageFetcher.retryDelayMillis(1, 60_000)).isEqualTo(5000L);
+    }
+
+    @Test
+    void retryAfterIsParsedFromSecondsAndDate() {
+        assertThat(PageFetcher.parseRetryAfter(null)).isZero();
+        assertThat(PageFetcher.parseRetryAfter("120")).isEqualTo(120_000L);
+        assertThat(PageFetcher.parseRetryAfter("soon")).isZero();
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(30));
+        assertThat(PageFetcher.parseRetryAfter(date)).isBetween(28_000L, 30_000L);
+    }
+
+    @Test
+    void charsetIsTakenFromMetaWhenHeaderHasNoCharset() throws IOException {
+        Charset cp1251 = Charset.forName("windows-1251");
+        serve("/meta", "text/html", "<html><head><meta charset=\"windows-1251\"></head><body><p>Привет мир</p></body></html>"
+                .getBytes(cp1251));
+        serve("/http-equiv", "text/html", ("<html><head><META HTTP-EQUIV='Content-Type' CONTENT='text/html; charset=windows-1251'>"
+                + "</head><body><p>Привет мир</p></body></html>").getBytes(cp1251));
+
+        assertThat(pageFetcher.fetchDocument(base + "/meta", PageStats.NONE).select("p").text()).isEqualTo("Привет мир");
+        assertThat(pageFetcher.fetchDocument(base + "/http-equiv", PageStats.NONE).select("p").text()).isEqualTo("Привет мир");
+    }
+
+    @Test
+    void charsetOfHeaderIsUsedBeforeMeta() throws IOException {
+        serve("/header", "text/html; charset=windows-1251", "<html><head><meta charset='utf-8'></head><body><p>Привет мир</p></body></html>"
+                .getBytes(Charset.forName("windows-1251")));
+
+        assertThat(pageFetcher.fetchDocument(base + "/header", PageStats.NONE).select("p").text()).isEqualTo("Привет мир");
+    }
+
+    @Test
+    void byteOrderMarkIsUsedBeforeHeaderAndSkipped() throws IOException {
+        byte[] text = "<html><body><p>Привет мир</p></body></html>".getBytes(StandardCharsets.UTF_16LE);
+        byte[] body = new byte[text.length + 2];
+        body[0] = (byte) 0xFF;
+        body[1] = (byte) 0xFE;
+        System.arraycopy(text, 0, body, 2, text.length);
+        serve("/bom", "text/html; charset=windows-1251", body);
+        byte[] utf8 = "<p>Привет мир</p>".getBytes(StandardCharsets.UTF_8);
+        byte[] utf8Body = new byte[utf8.length + 3];
+        utf8Body[0] = (byte) 0xEF;
+        utf8Body[1] = (byte) 0xBB;
+        utf8Body[2] = (byte) 0xBF;
+        System.arraycopy(utf8, 0, utf8Body, 3, utf8.length);
+        serve("/utf8-bom", "text/html", utf8Body);
+        serve("/default", "text/html", "<html><body><p>Привет мир</p></body></html>".getBytes(StandardCharsets.UTF_8));
+
+        Document document = pageFetcher.fetchDocument(base + "/bom", PageStats.NONE);
+        assertThat(document.select("p").text()).isEqualTo("Привет мир");
+        document = pageFetcher.fetchDocument(base + "/utf8-bom", PageStats.NONE);
+        assertThat(document.select("p").text()).isEqualTo("Привет мир");
+        assertThat(document.body().html()).doesNotContain("\uFEFF");
+        assertThat(pageFetcher.fetchDocument(base + "/default", PageStats.NONE).select("p").text()).isEqualTo("Привет мир");
+    }
+
+    @Test
+    void parsingStopsAfterAllRequiredElements() throws IOException {
+        serve("/article", "text/html; charset=utf-8", ("<html><body><div id='text'>text</div><div class='intro'>intro</div>"
+                + "<a class='author' href='/author'>author</a><footer>footer</footer></body></html>").getBytes(StandardCharsets.UTF_8));
+
+        Document document = pageFetcher.fetchDocument(base + "/article", PageStats.NONE,
+                QueryParser.parse("#text"), QueryParser.parse("a.author"), QueryParser.parse(".intro"));
+        assertThat(document.select("a.author").text()).isEqualTo("author");
+        assertThat(document.select(".intro").text()).isEqualTo("intro");
+        //footer is opened, but nothing after it is parsed
+        assertThat(document.select("footer").text()).isEmpty();
+
+        //page without one of required elements is parsed to the end
+        document = pageFetcher.fetchDocument(base + "/article", PageStats.NONE,
+                QueryParser.parse("#text"), QueryParser.parse(".missing"));
+        assertThat(document.select("footer").text()).isEqualTo("footer");
+    }
+
+    @Test
+    void pageIsTruncatedAtMaxBytes() throws IOException {
+        ReflectionTestUtils.setField(pageFetcher, "maxPageBytes", 100);
+        serve("/long", "text/html; charset=utf-8", ("<html><body><p>" + "a".repeat(200) + "</p><footer>footer</footer></body></html>")
+                .getBytes(StandardCharsets.UTF_8));
+        CrawlMetrics metrics = new CrawlMetrics();
+
+        Document document = pageFetcher.fetchDocument(base + "/long", metrics);
+        assertThat(document.select("p").text()).hasSizeLessThan(100);
+        assertThat(document.select("footer")).isEmpty();
+        assertThat(metrics.getBodyBytes().get()).isEqualTo(100);
+    }
+
+    private void serve(String path, String contentType, byte[] body) {
+        server.createContext(path, exchange -> respond(exchange, 200, contentType, body));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
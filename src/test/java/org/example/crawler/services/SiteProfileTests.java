@@ -0,0 +1,68 @@
+package org.example.crawler.services;
+
+import org.example.crawler.config.CrawlerSitesProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteProfileTests {
+    @Test
+    void budgetLessThanOneIsOne() {
+        CrawlerSitesProperties.Site site = site();
+        site.setFullScanEveryRuns(0);
+        site.setMaxConcurrentCategories(0);
+        site.setMaxNewsPerRun(-5);
+
+        SiteProfile profile = new SiteProfile(site);
+        assertThat(profile.getFullScanEveryRuns()).isEqualTo(1);
+        assertThat(profile.getMaxConcurrentCategories()).isEqualTo(1);
+        assertThat(profile.getMaxNewsPerRun()).isEqualTo(1);
+    }
+
+    @Test
+    void urlsWithAndWithoutWwwMatch() {
+        SiteProfile profile = new SiteProfile(site());
+
+        assertThat(profile.matches("https://www.gazeta.ru/news/1.shtml")).isTrue();
+        assertThat(profile.matches("http://GAZETA.ru/news/1.shtml")).isTrue();
+        assertThat(profile.matches("https://lenta.ru/news/1.shtml")).isFalse();
+        assertThat(profile.matches("not url")).isFalse();
+    }
+
+    @Test
+    void urlsOfSiteAreInFormOfBaseUrl() {
+        SiteProfile profile = new SiteProfile(site());
+
+        assertThat(profile.toSiteUrl("http://gazeta.ru/news/1.shtml?utm_source=rss#top"))
+                .isEqualTo("https://www.gazeta.ru/news/1.shtml");
+        assertThat(profile.toSiteUrl("https://www.gazeta.ru/%D0%BD/1.shtml"))
+                .isEqualTo("https://www.gazeta.ru/%D0%BD/1.shtml");
+        assertThat(profile.toSiteUrl("https://gazeta.ru")).isEqualTo("https://www.gazeta.ru/");
+        assertThat(profile.toSiteUrl("https://lenta.ru/news/1.shtml")).isNull();
+    }
+
+    private static CrawlerSitesProperties.Site site() {
+        CrawlerSitesProperties.Site site = new CrawlerSitesProperties.Site();
+        site.setName("gazeta");
+        site.setBaseUrl("https://www.gazeta.ru");
+        site.setMenuSelector("body");
+        site.setMenuLinkSelector("a[href]");
+        site.setCategoryBlacklist(List.of());
+        site.setCategoryContentSelector("body");
+        site.setArticleLinkSelector("a[href]");
+        site.setArticleLinkSuffix(".shtml");
+        site.setArticleSelector("article");
+        site.setPublicationTimeSelector("time");
+        site.setAuthorLinkSelector("a");
+        site.setHeadlineSelector("h1");
+        site.setAlternativeHeadlineSelector("h2");
+        site.setArticleTextSelector("div");
+        site.setIntroSelector("p");
+        site.setAuthorInfoSelector("div");
+        site.setAuthorNameSelector("span");
+        site.setAuthorEmailSelector("a");
+        return site;
+    }
+}
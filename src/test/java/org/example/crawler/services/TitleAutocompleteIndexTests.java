@@ -0,0 +1,126 @@
+package org.example.crawler.services;
+
+import org.example.crawler.repositories.NewsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TitleAutocompleteIndexTests {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private TitleAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TitleAutocompleteIndex(mock(NewsRepository.class));
+        ReflectionTestUtils.setField(index, "maxArticles", 100_000);
+        ReflectionTestUtils.setField(index, "maxResults", 50);
+        ReflectionTestUtils.setField(index, "maxTerms", 256);
+        ReflectionTestUtils.setField(index, "maxCandidates", 5000);
+        ReflectionTestUtils.setField(index, "maxScan", 10_000);
+    }
+
+    @Test
+    void tokenizeReturnsDistinctLowercaseWords() {
+        assertThat(TitleAutocompleteIndex.tokenize("Ёлки, ЁЖИК и ёлки-2025!"))
+                .containsExactly("елки", "ежик", "и", "2025");
+        assertThat(TitleAutocompleteIndex.tokenize(" , - ")).isEmpty();
+        assertThat(TitleAutocompleteIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void lookupReturnsNewestNewsMatchingEveryPrefix() {
+        put(1, "Москва готовится к празднику", 1);
+        put(2, "Праздник в Москве прошёл спокойно", 3);
+        put(3, "Погода в Москве", 2);
+        put(4, "Праздничный концерт в Казани", 4);
+        put(5, "Московский праздник без даты", -1);
+
+        assertThat(ids(index.lookup("мос пра", 10))).containsExactly(2L, 1L, 5L);
+        assertThat(ids(index.lookup("ПРАЗД", 2))).containsExactly(4L, 2L);
+        assertThat(ids(index.lookup("прошел", 10))).containsExactly(2L);
+        assertThat(index.lookup("мос пра", 100)).hasSize(3);
+        assertThat(index.lookup("мос берлин", 10)).isEmpty();
+        assertThat(index.lookup(" ,", 10)).isEmpty();
+        assertThat(index.lookup("мос", 0)).isEmpty();
+    }
+
+    @Test
+    void changedAndDeletedNewsAreUpdatedInIndex() {
+        put(1, "Старый заголовок", 1);
+        put(1, "Новый заголовок", 1);
+        put(2, "Новый выпуск", 2);
+        index.onNewsChange(new NewsChangeEvent(NewsChangeEvent.Type.DELETED, 2L, null, null, null));
+
+        assertThat(index.lookup("стар", 10)).isEmpty();
+        assertThat(index.lookup("нов", 10))
+                .extracting(TitleAutocompleteIndex.Suggestion::title)
+                .containsExactly("Новый заголовок");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void oldestNewsAreEvictedAboveMaxArticles() {
+        ReflectionTestUtils.setField(index, "maxArticles", 3);
+        put(1, "Первая новость", 1);
+        put(2, "Вторая новость", 2);
+        put(3, "Третья новость", 3);
+        //news older than all others is evicted right after adding
+        put(4, "Старая новость", 0);
+        put(5, "Пятая новость", 5);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(ids(index.lookup("новость", 10))).containsExactly(5L, 3L, 2L);
+        assertThat(index.lookup("перв", 10)).isEmpty();
+        assertThat(index.lookup("стар", 10)).isEmpty();
+    }
+
+    @Test
+    void rarePrefixFindsOldNewsAmongCommonOnes() {
+        fillWithCommonWords();
+        put(200_000, "Абзац редкого текста", -1);
+
+        assertThat(ids(index.lookup("аб ред", 10))).containsExactly(200_000L);
+        assertThat(ids(index.lookup("ред аб", 10))).containsExactly(200_000L);
+    }
+
+    @Test
+    void rareCombinationOfCommonPrefixesIsFoundQuickly() {
+        fillWithCommonWords();
+        //combination among the newest news is found by scan, older one is beyond limit of scan
+        put(200_000, "Абзац вглядываясь", 200_000);
+        put(200_001, "Абзац вглядываясь в прошлое", -1);
+
+        for (int i = 0; i < 200; i++)
+            index.lookup("аб вг", 10);
+        int runs = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+            assertThat(ids(index.lookup("аб вг", 10))).containsExactly(200_000L);
+        long averageMicros = (System.nanoTime() - start) / runs / 1000;
+        //scan of all 100000 news took about 40 ms
+        assertThat(averageMicros).isLessThan(10_000);
+    }
+
+    //100000 news, every prefix of query is common, but two words are never in one title
+    private void fillWithCommonWords() {
+        ReflectionTestUtils.setField(index, "maxArticles", 200_000);
+        for (int i = 0; i < 100_000; i++)
+            put(i, (i % 2 == 0 ? "Абзац " : "Вгляд ") + "номер " + i, i);
+    }
+
+    private void put(long id, String title, int hours) {
+        index.onNewsChange(new NewsChangeEvent(NewsChangeEvent.Type.CREATED, id, null, title,
+                hours < 0 ? null : START.plusHours(hours)));
+    }
+
+    private static List<Long> ids(List<TitleAutocompleteIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(TitleAutocompleteIndex.Suggestion::id).toList();
+    }
+}